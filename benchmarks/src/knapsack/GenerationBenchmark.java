@@ -0,0 +1,61 @@
+package knapsack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crossover of a whole generation, and full generations in the default and ping-pong modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({"100", "10000", "1000000"})
+    int items;
+
+    @Param({"5", "30"})
+    int dimensions;
+
+    @Param({"100", "1000"})
+    int populationSize;
+
+    @Param({"false", "true"})
+    boolean doubleBuffered;
+
+    private GeneticAlgorithm ga;
+    private ArrayList<Couple> parents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ga = new GeneticAlgorithm(BenchmarkInstances.random(items, dimensions, 1), populationSize / 2, new RandomSource(3));
+        ga.setDoubleBuffered(doubleBuffered);
+        parents = ga.selection();
+    }
+
+    @Benchmark
+    public Population crossover() {
+        return ga.crossover(parents);
+    }
+
+    @Benchmark
+    public Population generation() {
+        ga.nextGeneration(0.05, 0.2);
+        return ga.population;
+    }
+}
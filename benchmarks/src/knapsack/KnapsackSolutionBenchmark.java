@@ -0,0 +1,73 @@
+package knapsack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-solution operations: full and incremental evaluation, repair and mutation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KnapsackSolutionBenchmark {
+    @Param({"100", "10000", "1000000"})
+    int items;
+
+    @Param({"5", "30"})
+    int dimensions;
+
+    private KnapsackProblem problem;
+    private KnapsackSolution unrepaired;
+    private KnapsackSolution solution;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = BenchmarkInstances.random(items, dimensions, 1);
+        random = new SplittableRandom(2);
+        unrepaired = problem.generateRandomSolution(random);
+        unrepaired.fitness();
+        solution = unrepaired.copy();
+    }
+
+    @Benchmark
+    public int fitness() {
+        solution.invalidate();
+        return solution.fitness();
+    }
+
+    @Benchmark
+    public int fitnessAfterFlip() {
+        solution.flipItem(random.nextInt(items));
+        return solution.fitness();
+    }
+
+    @Benchmark
+    public int repair() {
+        solution.copyFrom(unrepaired);
+        solution.repair();
+        return solution.fitness();
+    }
+
+    @Benchmark
+    public int mutate() {
+        solution.mutate(random);
+        return solution.fitness();
+    }
+}
@@ -0,0 +1,76 @@
+package knapsack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roulette draws and the whole parent selection of one generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+    @Param({"100", "10000", "1000000"})
+    int items;
+
+    @Param({"5", "30"})
+    int dimensions;
+
+    @Param({"100", "1000"})
+    int populationSize;
+
+    private RandomSelector selector;
+    private int[] fitnesses;
+    private int[] choices;
+    private GeneticAlgorithm ga;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        fitnesses = random.ints(populationSize, 1, 100_000).toArray();
+        choices = new int[populationSize];
+        selector = new RandomSelector(random);
+        selector.reset(fitnesses, populationSize);
+
+        ga = new GeneticAlgorithm(BenchmarkInstances.random(items, dimensions, 1), populationSize / 2, new RandomSource(3));
+    }
+
+    @Benchmark
+    public int randomChoice() {
+        return selector.randomChoice();
+    }
+
+    @Benchmark
+    public int[] randomChoices() {
+        selector.randomChoices(choices);
+        return choices;
+    }
+
+    @Benchmark
+    public int buildAliasTable() {
+        selector.reset(fitnesses, populationSize);
+        return selector.size();
+    }
+
+    @Benchmark
+    public ArrayList<Couple> selection() {
+        return ga.selection();
+    }
+}
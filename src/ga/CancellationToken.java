@@ -0,0 +1,20 @@
+package ga;
+
+/**
+ * Flag shared between a running solve and whoever wants to stop it. The run polls it
+ * between the phases of a generation, so it stops within one phase of cancel().
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,167 @@
+package ga;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publisher that only keeps the latest value: a subscriber without demand does not queue
+ * anything, and when it requests again it gets the most recent value, the ones in between
+ * being dropped. A new subscriber starts with the latest value, if any. Each subscriber is
+ * signalled from a drain task on the executor, never from the thread calling submit.
+ * Both genetic algorithms publish their improving incumbents through it.
+ */
+public final class LatestValuePublisher<T> implements Flow.Publisher<T> {
+    private final Executor executor;
+    private final List<LatestSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private T last;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private volatile boolean subscribed;
+
+    public LatestValuePublisher() {
+        // Like CompletableFuture, do not rely on a common pool without parallelism.
+        this(ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool() : task -> new Thread(task).start());
+    }
+
+    public LatestValuePublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        LatestSubscription subscription = new LatestSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscribed = true;
+        subscriber.onSubscribe(subscription);
+        if (last != null) {
+            subscription.latest.set(last);
+        }
+        subscription.schedule();
+    }
+
+    public synchronized void submit(T value) {
+        last = value;
+        for (LatestSubscription subscription : subscriptions) {
+            subscription.latest.set(value);
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * Completes every subscriber once it has received the latest value.
+     */
+    public void close() {
+        closed = true;
+        subscriptions.forEach(LatestSubscription::schedule);
+    }
+
+    /**
+     * Fails every subscriber at once with the given error.
+     */
+    public void closeExceptionally(Throwable error) {
+        failure = error;
+        close();
+    }
+
+    /**
+     * Returns true once every subscriber has cancelled, telling the producer to stop.
+     */
+    public boolean isCancelled() {
+        return subscribed && subscriptions.isEmpty();
+    }
+
+    private final class LatestSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        // The first non-positive request, or 1 while there has been none: request(0) is an error too.
+        private volatile long badRequest = 1;
+        private boolean done;
+
+        LatestSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (badRequest > 0) {
+                    badRequest = n;
+                }
+            } else {
+                demand.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            latest.set(null);
+        }
+
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        // Drain loop: only one run at a time per subscription, so signals are serialised.
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!cancelled && !done) {
+                    try {
+                        drain();
+                    } catch (Throwable e) {
+                        cancel(); // the subscriber broke the protocol
+                    }
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (badRequest <= 0) {
+                done = true;
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + badRequest));
+                return;
+            }
+            if (demand.get() > 0) {
+                T value = latest.getAndSet(null);
+                if (value != null) {
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(value);
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            }
+            // A failed run completes at once, a finished one once its last value is out.
+            if (closed && (failure != null || latest.get() == null)) {
+                done = true;
+                subscriptions.remove(this);
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ga;
+
+import java.time.Duration;
+
+/**
+ * When a genetic algorithm run stops: any combination of a wall-clock deadline, a number of
+ * evaluations, a number of generations, a stagnation limit, a target fitness and a
+ * cancellation token, the first one reached winning. Unset criteria never fire.
+ * The deadline and the token are checked between the phases of a generation, the rest
+ * once per generation; a check is a few comparisons, plus System.nanoTime() with a deadline.
+ * A policy keeps the state of the run it is used by, so it must not be shared between
+ * concurrent runs; start() resets it. Both genetic algorithms take one in solve and solveAsync.
+ */
+public class StopPolicy {
+    public enum Reason { TARGET, DEADLINE, EVALUATIONS, GENERATIONS, STAGNATION, CANCELLED }
+
+    private long timeLimit = -1;
+    private boolean hasDeadline;
+    private long deadline;
+    private long maxEvaluations = Long.MAX_VALUE;
+    private int maxGenerations = Integer.MAX_VALUE;
+    private int stagnationLimit;
+    private int targetFitness = Integer.MAX_VALUE;
+    private CancellationToken token;
+
+    private int bestFitness;
+    private int lastImprovement;
+    private Reason reason;
+
+    private StopPolicy() {
+    }
+
+    /**
+     * Returns a policy with no criterion set, which only stops on the optimum until set up.
+     */
+    public static StopPolicy create() {
+        return new StopPolicy();
+    }
+
+    /**
+     * The policy of solve(mutationRate, elitistRate): 1001 generations and, when positive,
+     * the given stagnation limit.
+     */
+    public static StopPolicy defaults(int stagnationLimit) {
+        StopPolicy policy = new StopPolicy();
+        policy.setMaxGenerations(1001);
+        policy.setStagnationLimit(stagnationLimit);
+        return policy;
+    }
+
+    /**
+     * Stops the run this long after start().
+     */
+    public void setTimeLimit(Duration timeLimit) {
+        setTimeLimitNanos(timeLimit.toNanos());
+    }
+
+    public void setTimeLimitNanos(long timeLimitNanos) {
+        this.timeLimit = timeLimitNanos;
+        this.hasDeadline = false;
+    }
+
+    /**
+     * Stops the run at an absolute System.nanoTime() value, e.g. the deadline of a request.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.timeLimit = -1;
+        this.hasDeadline = true;
+        this.deadline = deadlineNanos;
+    }
+
+    public void setMaxEvaluations(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public void setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    /**
+     * Stops after this many generations without improving the best fitness; 0 turns it off.
+     */
+    public void setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    public void setTargetFitness(int targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns what stopped the last run, or null if it ended on the optimum or is still running.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Called when a run starts: fixes the deadline of a time limit and resets the stagnation count.
+     */
+    public void start(int initialFitness) {
+        if (timeLimit >= 0) {
+            hasDeadline = true;
+            deadline = System.nanoTime() + timeLimit;
+        }
+        bestFitness = initialFitness;
+        lastImprovement = 0;
+        reason = null;
+    }
+
+    /**
+     * The check made between the phases of a generation: cancellation and deadline only.
+     */
+    public boolean interrupted() {
+        if (token != null && token.isCancelled()) {
+            reason = Reason.CANCELLED;
+            return true;
+        }
+        // Difference rather than comparison, System.nanoTime() may overflow.
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            reason = Reason.DEADLINE;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The check made after every generation, which also tracks stagnation.
+     */
+    public boolean shouldStop(int generation, long evaluations, int fitness) {
+        if (fitness > bestFitness) {
+            bestFitness = fitness;
+            lastImprovement = generation;
+        }
+        if (fitness >= targetFitness) {
+            reason = Reason.TARGET;
+        } else if (generation >= maxGenerations) {
+            reason = Reason.GENERATIONS;
+        } else if (evaluations >= maxEvaluations) {
+            reason = Reason.EVALUATIONS;
+        } else if (stagnationLimit > 0 && generation - lastImprovement >= stagnationLimit) {
+            reason = Reason.STAGNATION;
+        } else {
+            return interrupted();
+        }
+        return true;
+    }
+}
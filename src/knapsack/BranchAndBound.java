@@ -0,0 +1,244 @@
+package knapsack;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact depth-first branch and bound. Items are branched on in decreasing order of
+ * utility / (dual-weighted cost), taking the item first, and a node is pruned when the LP
+ * bound of the surrogate constraint, built with the duals of the problem's upper bound,
+ * cannot beat the incumbent. The top of the tree is split into ForkJoin tasks so that
+ * idle workers steal subtrees; below that each task searches its subtree sequentially.
+ */
+public class BranchAndBound implements KnapsackSolver {
+    // Levels of the tree split into tasks, on top of log2(parallelism).
+    private static final int EXTRA_SPLIT_LEVELS = 6;
+    // Nodes between two checks of the deadline.
+    private static final int CLOCK_INTERVAL = 1 << 12;
+
+    private final KnapsackProblem problem;
+    private final int n;
+    private final int d;
+    // Items in branching order: order[l] is the item at depth l, and the arrays below are
+    // indexed by depth. cost is depth-major like the problem's matrix.
+    private final int[] order;
+    private final int[] utility;
+    private final int[] cost;
+    private final double[] weight;
+    private final double[] mu;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private Duration timeLimit = Duration.ofSeconds(10);
+    private long deadline;
+    private volatile boolean timedOut;
+    private final AtomicLong nodes = new AtomicLong();
+
+    private volatile int incumbent;
+    private long[] incumbentBits;
+
+    public BranchAndBound(KnapsackProblem problem) {
+        this.problem = problem;
+        this.n = problem.getNumberOfItems();
+        this.d = problem.getDimensions();
+
+        this.mu = problem.getDualWeights();
+        double[] itemWeights = new double[n];
+        double[] ratios = new double[n];
+        Integer[] indices = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                itemWeights[i] += mu[j] * problem.getCost(i, j);
+            }
+            ratios[i] = itemWeights[i] > 0 ? problem.getUtility(i) / itemWeights[i] : Double.POSITIVE_INFINITY;
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (a, b) -> Double.compare(ratios[b], ratios[a]));
+
+        this.order = new int[n];
+        this.utility = new int[n];
+        this.cost = new int[n * d];
+        this.weight = new double[n];
+        for (int l = 0; l < n; l++) {
+            int i = indices[l];
+            order[l] = i;
+            utility[l] = problem.getUtility(i);
+            weight[l] = itemWeights[i];
+            for (int j = 0; j < d; j++) {
+                cost[l * d + j] = problem.getCost(i, j);
+            }
+        }
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Bounds the search time; when it runs out solve returns the incumbent, unproven.
+     */
+    public void setTimeLimit(Duration timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Returns true when the last solve explored the whole tree, i.e. its result is optimal.
+     */
+    public boolean isProvenOptimal() {
+        return !timedOut;
+    }
+
+    public long getNodeCount() {
+        return nodes.get();
+    }
+
+    @Override
+    public KnapsackSolution solve() {
+        deadline = System.nanoTime() + timeLimit.toNanos();
+        timedOut = false;
+        nodes.set(0);
+
+        // The greedy repair of the empty solution is the first incumbent.
+        KnapsackSolution greedy = new KnapsackSolution(problem);
+        greedy.repair();
+        incumbent = greedy.fitness();
+        incumbentBits = new long[(n + 63) >>> 6];
+        for (int l = 0; l < n; l++) {
+            if (greedy.getItem(order[l])) {
+                incumbentBits[l >>> 6] |= 1L << l;
+            }
+        }
+
+        if (incumbent < problem.getUpperBound()) {
+            int splitDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism()) + EXTRA_SPLIT_LEVELS;
+            pool.invoke(new Node(0, 0, problem.getBudgets().clone(), new long[incumbentBits.length], splitDepth));
+        }
+
+        KnapsackSolution solution = new KnapsackSolution(problem);
+        synchronized (this) {
+            for (int l = 0; l < n; l++) {
+                if ((incumbentBits[l >>> 6] & (1L << l)) != 0) {
+                    solution.setItem(order[l], true);
+                }
+            }
+        }
+        return solution;
+    }
+
+    private synchronized void offer(int value, long[] chosen) {
+        if (value > incumbent) {
+            System.arraycopy(chosen, 0, incumbentBits, 0, chosen.length);
+            incumbent = value;
+        }
+    }
+
+    // A subtree: the items before depth are decided, slack holds the remaining budgets.
+    private final class Node extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int depth;
+        private final int value;
+        private final int[] slack;
+        private final long[] chosen;
+        private final int splitDepth;
+        private long visited;
+
+        Node(int depth, int value, int[] slack, long[] chosen, int splitDepth) {
+            this.depth = depth;
+            this.value = value;
+            this.slack = slack;
+            this.chosen = chosen;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth < splitDepth && depth < n) {
+                if (timedOut || !promising(depth, value, slack)) {
+                    return;
+                }
+                Node exclude = new Node(depth + 1, value, slack, chosen, splitDepth);
+                if (fits(depth, slack)) {
+                    int[] takenSlack = slack.clone();
+                    take(depth, takenSlack, -1);
+                    long[] takenChosen = chosen.clone();
+                    takenChosen[depth >>> 6] |= 1L << depth;
+                    int taken = value + utility[depth];
+                    offer(taken, takenChosen);
+                    invokeAll(new Node(depth + 1, taken, takenSlack, takenChosen, splitDepth), exclude);
+                } else {
+                    exclude.compute();
+                }
+                return;
+            }
+            search(depth, value);
+            nodes.addAndGet(visited);
+        }
+
+        private void search(int depth, int value) {
+            if (depth == n || timedOut) {
+                return;
+            }
+            if ((++visited & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                timedOut = true;
+                return;
+            }
+            if (!promising(depth, value, slack)) {
+                return;
+            }
+            if (fits(depth, slack)) {
+                take(depth, slack, -1);
+                chosen[depth >>> 6] |= 1L << depth;
+                int taken = value + utility[depth];
+                if (taken > incumbent) {
+                    offer(taken, chosen);
+                }
+                search(depth + 1, taken);
+                chosen[depth >>> 6] &= ~(1L << depth);
+                take(depth, slack, 1);
+            }
+            search(depth + 1, value);
+        }
+    }
+
+    // True when the LP bound of the subtree can beat the incumbent by at least one.
+    // Items that no longer fit on their own are left out, which keeps the bound valid.
+    private boolean promising(int depth, int value, int[] slack) {
+        double capacity = 0;
+        for (int j = 0; j < d; j++) {
+            capacity += mu[j] * slack[j];
+        }
+        double bound = value;
+        for (int l = depth; l < n; l++) {
+            if (!fits(l, slack)) {
+                continue;
+            }
+            if (weight[l] <= capacity) {
+                capacity -= weight[l];
+                bound += utility[l];
+            } else {
+                bound += utility[l] * capacity / weight[l];
+                break;
+            }
+        }
+        return Math.floor(bound + 1e-9 * bound + 1e-6) > incumbent;
+    }
+
+    private boolean fits(int depth, int[] slack) {
+        for (int j = 0, k = depth * d; j < d; j++, k++) {
+            if (cost[k] > slack[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Adds sign times the costs of the item at depth to the slack.
+    private void take(int depth, int[] slack, int sign) {
+        for (int j = 0, k = depth * d; j < d; j++, k++) {
+            slack[j] += sign * cost[k];
+        }
+    }
+}
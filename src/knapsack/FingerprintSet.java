@@ -0,0 +1,93 @@
+package knapsack;
+
+import java.util.Arrays;
+
+/**
+ * Multiset of 64-bit fingerprints in an open-addressing table with linear probing.
+ * A slot is free when its count is zero, and removals use backward-shift deletion,
+ * so there are no tombstones and lookups stay short however many updates are made.
+ */
+class FingerprintSet {
+    private long[] fingerprints;
+    private int[] counts;
+    private int mask;
+    private int distinct;
+
+    FingerprintSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        fingerprints = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long fingerprint) {
+        long h = fingerprint * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int find(long fingerprint) {
+        int slot = slot(fingerprint);
+        while (counts[slot] != 0 && fingerprints[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    void add(long fingerprint) {
+        int slot = find(fingerprint);
+        if (counts[slot]++ == 0) {
+            fingerprints[slot] = fingerprint;
+            if (++distinct * 2 > fingerprints.length) {
+                grow();
+            }
+        }
+    }
+
+    void remove(long fingerprint) {
+        int slot = find(fingerprint);
+        if (counts[slot] == 0 || --counts[slot] > 0) {
+            return;
+        }
+        distinct--;
+
+        // Shift back the entries of the probe chain that can no longer be reached.
+        int hole = slot;
+        for (int next = (hole + 1) & mask; counts[next] != 0; next = (next + 1) & mask) {
+            int home = slot(fingerprints[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                fingerprints[hole] = fingerprints[next];
+                counts[hole] = counts[next];
+                counts[next] = 0;
+                hole = next;
+            }
+        }
+    }
+
+    int count(long fingerprint) {
+        return counts[find(fingerprint)];
+    }
+
+    int distinct() {
+        return distinct;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        distinct = 0;
+    }
+
+    private void grow() {
+        long[] oldFingerprints = fingerprints;
+        int[] oldCounts = counts;
+        fingerprints = new long[2 * oldFingerprints.length];
+        counts = new int[2 * oldCounts.length];
+        mask = fingerprints.length - 1;
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = find(oldFingerprints[i]);
+                fingerprints[slot] = oldFingerprints[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
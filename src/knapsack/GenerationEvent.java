@@ -0,0 +1,65 @@
+package knapsack;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed once per generation, with the same content as GenerationStats.
+ */
+@Name("knapsack.Generation")
+@Label("Knapsack GA Generation")
+@Category({"Genetic Algorithm", "Knapsack"})
+@Description("One generation of the knapsack genetic algorithm")
+@StackTrace(false)
+class GenerationEvent extends jdk.jfr.Event {
+    @Label("Generation")
+    int generation;
+
+    @Label("Best Fitness")
+    int bestFitness;
+
+    @Label("Mean Fitness")
+    double meanFitness;
+
+    @Label("Worst Fitness")
+    int worstFitness;
+
+    @Label("Diversity")
+    @Description("Fraction of distinct genomes in the population")
+    double diversity;
+
+    @Label("Evaluations")
+    long evaluations;
+
+    @Label("Selection")
+    @Timespan(Timespan.NANOSECONDS)
+    long selectionNanos;
+
+    @Label("Crossover")
+    @Timespan(Timespan.NANOSECONDS)
+    long crossoverNanos;
+
+    @Label("Mutation")
+    @Timespan(Timespan.NANOSECONDS)
+    long mutationNanos;
+
+    @Label("Repair")
+    @Timespan(Timespan.NANOSECONDS)
+    long repairNanos;
+
+    @Label("Evaluation")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluationNanos;
+
+    @Label("Local Search")
+    @Timespan(Timespan.NANOSECONDS)
+    long localSearchNanos;
+
+    @Label("Elitism")
+    @Timespan(Timespan.NANOSECONDS)
+    long elitismNanos;
+}
@@ -0,0 +1,10 @@
+package knapsack;
+
+/**
+ * Receives the statistics of every generation of a GeneticAlgorithm, on the thread that
+ * runs the algorithm, right after the generation is complete.
+ */
+@FunctionalInterface
+public interface GenerationListener {
+    void onGeneration(GenerationStats stats);
+}
@@ -0,0 +1,13 @@
+package knapsack;
+
+/**
+ * Statistics of one generation of a GeneticAlgorithm. Diversity is the fraction of
+ * distinct genomes in the population. The phase durations are in nanoseconds; in
+ * parallel mode crossover, mutation, repair, evaluation and local search are summed over
+ * all the workers.
+ */
+public record GenerationStats(int generation, int bestFitness, double meanFitness, int worstFitness,
+                              double diversity, long evaluations, long selectionNanos, long crossoverNanos,
+                              long mutationNanos, long repairNanos, long evaluationNanos, long localSearchNanos,
+                              long elitismNanos) {
+}
@@ -1,96 +1,630 @@
 package knapsack;
 
+import ga.LatestValuePublisher;
+import ga.StopPolicy;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+
+import jdk.jfr.EventType;
+
+public class GeneticAlgorithm implements KnapsackSolver {
+    public enum Replacement { WORST, TOURNAMENT }
+
+    // Draws for a mother different from the father before falling back to a scan.
+    private static final int MAX_MOTHER_DRAWS = 8;
+    // Infeasible random draws for an initial individual before repairing the next one instead.
+    private static final int MAX_INITIAL_DRAWS = 64;
+    // Generations without improvement after which solve() stops when no StopPolicy is given.
+    static final int DEFAULT_STAGNATION_LIMIT = 100;
+
+    // Slots of the per-worker phase timers.
+    private static final int CROSSOVER = 0;
+    private static final int MUTATION = 1;
+    private static final int REPAIR = 2;
+    private static final int LOCAL_SEARCH = 3;
+    private static final int EVALUATION = 4;
+    private static final int PHASES = 5;
+
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
 
-public class GeneticAlgorithm {
     public Population population;
     public int populationSize;
     public KnapsackProblem problem;
+    private RandomSource randomSource;
+    private SplittableRandom random;
+    private RandomSelector selector;
+    private int[] fitnesses = new int[0];
+    private ExecutorService executor;
+    private SplittableRandom[] streams = new SplittableRandom[0];
+    private long evaluations;
+    private int generation;
+    private int stagnationLimit = DEFAULT_STAGNATION_LIMIT;
+
+    // Phases are only timed while someone listens, either a listener or a Flight Recording.
+    private final List<GenerationListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean instrumented;
+    private long[][] phaseNanos = new long[1][PHASES];
+    private final long[] phases = new long[PHASES];
+
+    // Optional memetic stage, with one copy of the local search per worker.
+    private LocalSearch localSearch;
+    private LocalSearch.Target localSearchTarget;
+    private LocalSearch[] localSearches = new LocalSearch[1];
+
+    // Ping-pong mode: children are bred into the storage of the back population, and parents are index pairs.
+    private boolean doubleBuffered;
+    private Population back;
+    private int[] couples = new int[0];
+    private double inPlaceMutationRate;
+    private final Chunk breedInPlace = this::breedInPlace;
 
     public GeneticAlgorithm(KnapsackProblem problem, int k) {
+        this(problem, k, new RandomSource());
+    }
+
+    /**
+     * Builds an initial population of 2k random feasible solutions. After MAX_INITIAL_DRAWS
+     * infeasible draws in a row, as happens with tight budgets, the next draw is repaired
+     * instead, so the population may then start with repaired individuals.
+     */
+    public GeneticAlgorithm(KnapsackProblem problem, int k, RandomSource randomSource) {
         this.problem = problem;
         this.population = new Population(problem);
         this.populationSize = 2 * k;
+        this.randomSource = randomSource;
+        this.random = randomSource.split();
+        this.selector = new RandomSelector(this.random);
 
-        for (int i = 0; i < 2 * k; i++) {
-            KnapsackSolution solution = problem.generateRandomSolution();
-            if (solution.fitness() == 0)
+        for (int i = 0, misses = 0; i < 2 * k; i++) {
+            KnapsackSolution solution = problem.generateRandomSolution(this.random);
+            if (solution.fitness() == 0 && misses++ < MAX_INITIAL_DRAWS) {
                 i--;
-            else
+            } else {
+                if (solution.fitness() == 0) {
+                    solution.repair(); // tight budgets, random draws are almost never feasible
+                }
                 this.population.add(solution);
+                misses = 0;
+            }
         }
     }
 
+    private void resetSelector() {
+        if (fitnesses.length < this.populationSize) {
+            fitnesses = new int[this.populationSize];
+        }
+        for (int i = 0; i < this.populationSize; i++) {
+            fitnesses[i] = this.population.getFitness(i);
+        }
+        selector.reset(fitnesses, this.populationSize);
+    }
+
     public ArrayList<Couple> selection() {
         ArrayList<Couple> parents = new ArrayList<>();
-        RandomSelector selector = new RandomSelector();
 
-        this.population.getSolutions().forEach(solution -> selector.add(solution.fitness()));
+        resetSelector();
 
         for (int i = 0; i < this.populationSize / 2; i++) {
-            KnapsackSolution father = this.population.get(selector.randomChoice());
-            KnapsackSolution mother;
-            do {
-                mother = this.population.get(selector.randomChoice());
-            } while (mother.equals(father));
-            parents.add(new Couple(mother, father));
+            int father = selector.randomChoice();
+            int mother = selectMother(father);
+            parents.add(new Couple(this.population.get(mother), this.population.get(father)));
         }
 
         return parents;
     }
 
+    /**
+     * Same draw as selection(), written as (mother, father) index pairs into couples.
+     */
+    public void selection(int[] couples) {
+        resetSelector();
+
+        for (int i = 0; i < this.populationSize / 2; i++) {
+            int father = selector.randomChoice();
+            int mother = selectMother(father);
+            couples[2 * i] = mother;
+            couples[2 * i + 1] = father;
+        }
+    }
+
+    /**
+     * Draws a mother whose genome differs from the father's. After MAX_MOTHER_DRAWS failed
+     * draws, falls back to the next individual with another genome, or to any other
+     * individual once the whole population is a single genome.
+     */
+    private int selectMother(int father) {
+        for (int draw = 0; draw < MAX_MOTHER_DRAWS; draw++) {
+            int mother = selector.randomChoice();
+            if (!this.population.sameGenome(mother, father)) {
+                return mother;
+            }
+        }
+
+        int size = this.population.size();
+        if (size == 1) {
+            return father;
+        }
+        if (this.population.distinctCount() > 1) {
+            for (int offset = 1; offset < size; offset++) {
+                int mother = (father + offset) % size;
+                if (!this.population.sameGenome(mother, father)) {
+                    return mother;
+                }
+            }
+        }
+        return (father + 1 + random.nextInt(size - 1)) % size;
+    }
+
     public Population crossover(ArrayList<Couple> parents) {
+        return breed(parents, 0);
+    }
+
+    /**
+     * Runs generations in parallel: the offspring batch is split into one contiguous chunk
+     * per worker, each worker drawing from its own stream split from the RandomSource.
+     * Passing a null executor goes back to the serial mode; otherwise workers must be positive.
+     */
+    public void setExecutor(ExecutorService executor, int workers) {
+        if (executor != null && workers < 1) {
+            throw new IllegalArgumentException("A parallel run needs at least one worker, got " + workers);
+        }
+        this.executor = executor;
+        this.streams = randomSource.split(executor == null ? 0 : workers);
+        this.phaseNanos = new long[Math.max(1, streams.length)][PHASES];
+        setLocalSearch(localSearch, localSearchTarget);
+    }
+
+    /**
+     * Improves every child, or the elites of every generation, with a local search.
+     * A null local search turns the memetic stage off.
+     */
+    public void setLocalSearch(LocalSearch localSearch, LocalSearch.Target target) {
+        this.localSearch = localSearch;
+        this.localSearchTarget = target;
+        this.localSearches = new LocalSearch[phaseNanos.length];
+        if (localSearch != null) {
+            localSearches[0] = localSearch;
+            for (int w = 1; w < localSearches.length; w++) {
+                localSearches[w] = localSearch.copy();
+            }
+        }
+    }
+
+    public void addListener(GenerationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GenerationListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    private Population breed(List<Couple> parents, double mutationRate) {
+        KnapsackSolution[] children = new KnapsackSolution[2 * parents.size()];
+
+        run(parents.size(), (from, to, random, worker) -> breed(parents, children, from, to, random, worker, mutationRate));
+
         Population newPopulation = new Population(this.problem);
+        for (KnapsackSolution child : children) {
+            newPopulation.add(child);
+        }
+        return newPopulation;
+    }
+
+    private interface Chunk {
+        void run(int from, int to, RandomGenerator random, int worker);
+    }
+
+    // Runs chunk over [0, count), serially or split in one contiguous range per parallel worker.
+    private void run(int count, Chunk chunk) {
+        if (executor == null) {
+            chunk.run(0, count, this.random, 0);
+            return;
+        }
 
-        for (int i = 0; i < populationSize / 2; i++) {
+        List<Callable<Void>> tasks = new ArrayList<>(streams.length);
+        for (int w = 0; w < streams.length; w++) {
+            int from = w * count / streams.length;
+            int to = (w + 1) * count / streams.length;
+            SplittableRandom random = streams[w];
+            int worker = w;
+            tasks.add(() -> {
+                chunk.run(from, to, random, worker);
+                return null;
+            });
+        }
+        try {
+            // invokeAll is the per-generation barrier
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while breeding a generation", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Breeding worker failed", e.getCause());
+        }
+    }
+
+    // Crossover, mutation, repair and evaluation of couples [from, to), writing children 2i and 2i + 1.
+    private void breed(List<Couple> parents, KnapsackSolution[] children, int from, int to,
+                       RandomGenerator random, int worker, double mutationRate) {
+        long[] nanos = phaseNanos[worker];
+        for (int i = from; i < to; i++) {
+            long start = instrumented ? System.nanoTime() : 0;
             KnapsackSolution child1 = new KnapsackSolution(problem);
             KnapsackSolution child2 = new KnapsackSolution(problem);
+            Couple couple = parents.get(i);
 
-            for (int j = 0; j < problem.getNumberOfItems(); j++) {
-                if (Math.random() < 0.5) {
-                    child1.setItem(j, parents.get(i).father.getItem(j));
-                    child2.setItem(j, parents.get(i).mother.getItem(j));
-                } else {
-                    child1.setItem(j, parents.get(i).mother.getItem(j));
-                    child2.setItem(j, parents.get(i).father.getItem(j));
-                }
+            KnapsackSolution.crossover(couple.mother, couple.father, child1, child2, random);
+            if (instrumented) {
+                nanos[CROSSOVER] += System.nanoTime() - start;
             }
 
-            newPopulation.add(child1);
-            newPopulation.add(child2);
+            children[2 * i] = finishChild(child1, random, worker, mutationRate);
+            children[2 * i + 1] = finishChild(child2, random, worker, mutationRate);
         }
+    }
 
-        return newPopulation;
+    // Everything a child goes through after crossover: mutation and repair with probability
+    // mutationRate, evaluation, then local search when it targets children. Each step has its own timer.
+    private KnapsackSolution finishChild(KnapsackSolution child, RandomGenerator random, int worker, double mutationRate) {
+        LocalSearch search = localSearchTarget == LocalSearch.Target.CHILDREN ? localSearches[worker] : null;
+        if (!instrumented) {
+            if (random.nextDouble() < mutationRate) {
+                child.mutate(random);
+                child.repair();
+            }
+            child.fitness(); // evaluated here so that the cost is paid on the worker
+            if (search != null) {
+                search.improve(child);
+            }
+            return child;
+        }
+
+        long[] nanos = phaseNanos[worker];
+        long start = System.nanoTime();
+        if (random.nextDouble() < mutationRate) {
+            child.mutate(random);
+            long mutated = System.nanoTime();
+            child.repair();
+            long repaired = System.nanoTime();
+            nanos[MUTATION] += mutated - start;
+            nanos[REPAIR] += repaired - mutated;
+            start = repaired;
+        }
+        child.fitness();
+        long evaluated = System.nanoTime();
+        nanos[EVALUATION] += evaluated - start;
+        if (search != null) {
+            search.improve(child);
+            nanos[LOCAL_SEARCH] += System.nanoTime() - evaluated;
+        }
+        return child;
+    }
+
+    /**
+     * Makes solve stop once the best fitness has not improved for the given number of
+     * generations, 100 by default; 0 only stops on the upper bound or after 1001 generations.
+     * Only used when no StopPolicy is given.
+     */
+    public void setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    /**
+     * Copies a solution found elsewhere, e.g. a branch and bound incumbent, over the worst individual.
+     */
+    public void seed(KnapsackSolution solution) {
+        this.population.overwrite(this.population.getWorstIndex(), solution);
+    }
+
+    @Override
+    public KnapsackSolution solve() {
+        return solve(0.05, 0.2);
     }
 
     public KnapsackSolution solve(double mutationRate, double elitistRate) {
-        int generation = 0;
+        return solve(mutationRate, elitistRate, StopPolicy.defaults(stagnationLimit));
+    }
 
-        while (!(this.population.getBest().isOptimal() || generation > 1000)) {
-            ArrayList<Couple> parents = selection();
-            Population newPopulation = crossover(parents);
+    /**
+     * Runs generations until the best solution reaches the upper bound or the policy says stop.
+     * When the deadline passes or the token is cancelled in the middle of a generation, that
+     * generation is dropped and the population stays as it was after the previous one.
+     */
+    public KnapsackSolution solve(double mutationRate, double elitistRate, StopPolicy policy) {
+        return solve(mutationRate, elitistRate, policy, () -> false, best -> { });
+    }
+
+    /**
+     * Runs solve on a new daemon thread and returns at once. The publisher signals an Incumbent
+     * every time the best fitness improves, starting with the initial best, then completes
+     * when the run ends. A slow subscriber only receives the latest incumbent, and the run
+     * stops at the end of the current generation once every subscriber has cancelled.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate) {
+        return solveAsync(mutationRate, elitistRate, StopPolicy.defaults(stagnationLimit));
+    }
+
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, StopPolicy policy) {
+        return solveAsync(mutationRate, elitistRate, policy, task -> {
+            Thread thread = new Thread(task, "knapsack-solve");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Same as solveAsync, with the run submitted to the given executor.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, Executor runner) {
+        return solveAsync(mutationRate, elitistRate, StopPolicy.defaults(stagnationLimit), runner);
+    }
+
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, StopPolicy policy,
+                                                Executor runner) {
+        LatestValuePublisher<Incumbent> publisher = new LatestValuePublisher<>();
+        runner.execute(() -> {
+            try {
+                solve(mutationRate, elitistRate, policy, publisher::isCancelled,
+                        best -> publisher.submit(new Incumbent(generation, best.fitness(), best)));
+                publisher.close();
+            } catch (Throwable e) {
+                publisher.closeExceptionally(e);
+            }
+        });
+        return publisher;
+    }
+
+    // The generation loop of solve: stop is polled once per generation, improved gets every new best.
+    private KnapsackSolution solve(double mutationRate, double elitistRate, StopPolicy policy,
+                                   BooleanSupplier stop, Consumer<KnapsackSolution> improved) {
+        generation = 0;
+        evaluations = 0;
+        // The bound is lazy; fetched here, before start(), a time limit does not pay for it.
+        problem.getUpperBound();
+        int bestFitness = this.population.getBest().fitness();
+        policy.start(bestFitness);
+        improved.accept(this.population.getBest());
+
+        while (!(this.population.getBest().isOptimal() || stop.getAsBoolean() || policy.interrupted())) {
+            if (!nextGeneration(mutationRate, elitistRate, policy)) {
+                break;
+            }
+
+            int fitness = this.population.getBest().fitness();
+            if (fitness > bestFitness) {
+                bestFitness = fitness;
+                improved.accept(this.population.getBest());
+            }
+            if (policy.shouldStop(generation, evaluations, fitness)) {
+                break;
+            }
+        }
 
+        return this.population.getBest();
+    }
+
+    /**
+     * Turns the ping-pong mode on or off. In this mode two populations are allocated once
+     * and swapped every generation: children overwrite the genomes of the back population
+     * in place, parents are kept as index pairs in an int[], and elites are copied rather
+     * than shared, so a generation allocates nothing in the serial path.
+     */
+    public void setDoubleBuffered(boolean doubleBuffered) {
+        this.doubleBuffered = doubleBuffered;
+        if (doubleBuffered && back == null) {
+            back = new Population(problem);
             for (int i = 0; i < this.populationSize; i++) {
-                if (Math.random() < mutationRate) {
-                    newPopulation.mutate(i);
-                    newPopulation.get(i).repair();
-                }
+                back.add(new KnapsackSolution(problem));
             }
+            couples = new int[this.populationSize];
+        }
+    }
+
+    public void nextGeneration(double mutationRate, double elitistRate) {
+        nextGeneration(mutationRate, elitistRate, null);
+    }
+
+    // Returns false, leaving the population untouched, when the policy interrupts the generation.
+    private boolean nextGeneration(double mutationRate, double elitistRate, StopPolicy policy) {
+        instrumented = !listeners.isEmpty() || GENERATION_EVENT.isEnabled();
+        long start = instrumented ? System.nanoTime() : 0;
+        long selected;
+        long bred;
+        int eliteCount = (int) (elitistRate * this.populationSize) + 1;
 
-            int eliteCount = 0;
-            Iterable<KnapsackSolution> it = population.getSolutions();
-            while (it.iterator().hasNext() && eliteCount <= elitistRate * this.populationSize) {
-                newPopulation.replace(it.iterator().next());
-                eliteCount++;
+        if (doubleBuffered) {
+            selection(couples);
+            selected = instrumented ? System.nanoTime() : 0;
+            if (policy != null && policy.interrupted()) {
+                return false;
             }
 
+            inPlaceMutationRate = mutationRate;
+            run(this.populationSize / 2, breedInPlace);
+            back.rebuild();
+            bred = instrumented ? System.nanoTime() : 0;
+            if (policy != null && policy.interrupted()) {
+                return abandon();
+            }
+
+            back.copyElites(this.population, eliteCount);
+
+            Population front = this.population;
+            this.population = back;
+            this.back = front;
+        } else {
+            ArrayList<Couple> parents = selection();
+            selected = instrumented ? System.nanoTime() : 0;
+            if (policy != null && policy.interrupted()) {
+                return false;
+            }
+
+            Population newPopulation = breed(parents, mutationRate);
+            bred = instrumented ? System.nanoTime() : 0;
+            if (policy != null && policy.interrupted()) {
+                return abandon();
+            }
+
+            newPopulation.mergeElites(this.population, eliteCount);
+
             this.population = newPopulation;
-            generation++;
+        }
+
+        long merged = instrumented ? System.nanoTime() : 0;
+
+        if (localSearchTarget == LocalSearch.Target.ELITES && localSearches[0] != null
+                && !(policy != null && policy.interrupted())) {
+            this.population.improveElites(eliteCount, localSearches[0]);
+            if (instrumented) {
+                phaseNanos[0][LOCAL_SEARCH] += System.nanoTime() - merged;
+            }
+        }
+
+        generation++;
+        evaluations += this.populationSize;
+        if (instrumented) {
+            report(selected - start, merged - bred);
+        }
+        return true;
+    }
+
+    // Drops the phase times of an interrupted generation so they do not leak into the next report.
+    private boolean abandon() {
+        for (long[] nanos : phaseNanos) {
+            Arrays.fill(nanos, 0);
+        }
+        return false;
+    }
+
+    private void report(long selectionNanos, long elitismNanos) {
+        Arrays.fill(phases, 0);
+        for (long[] nanos : phaseNanos) {
+            for (int p = 0; p < phases.length; p++) {
+                phases[p] += nanos[p];
+                nanos[p] = 0;
+            }
+        }
+
+        int size = this.population.size();
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += this.population.getFitness(i);
+        }
+        GenerationStats stats = new GenerationStats(generation, this.population.getBest().fitness(), (double) sum / size,
+                this.population.getWorst().fitness(), (double) this.population.distinctCount() / size, evaluations,
+                selectionNanos, phases[CROSSOVER], phases[MUTATION], phases[REPAIR],
+                phases[EVALUATION], phases[LOCAL_SEARCH], elitismNanos);
+
+        for (GenerationListener listener : listeners) {
+            listener.onGeneration(stats);
+        }
+
+        GenerationEvent event = new GenerationEvent();
+        if (event.shouldCommit()) {
+            event.generation = stats.generation();
+            event.bestFitness = stats.bestFitness();
+            event.meanFitness = stats.meanFitness();
+            event.worstFitness = stats.worstFitness();
+            event.diversity = stats.diversity();
+            event.evaluations = stats.evaluations();
+            event.selectionNanos = stats.selectionNanos();
+            event.crossoverNanos = stats.crossoverNanos();
+            event.mutationNanos = stats.mutationNanos();
+            event.repairNanos = stats.repairNanos();
+            event.evaluationNanos = stats.evaluationNanos();
+            event.localSearchNanos = stats.localSearchNanos();
+            event.elitismNanos = stats.elitismNanos();
+            event.commit();
+        }
+    }
+
+    private void breedInPlace(int from, int to, RandomGenerator random, int worker) {
+        long[] nanos = phaseNanos[worker];
+        for (int i = from; i < to; i++) {
+            long start = instrumented ? System.nanoTime() : 0;
+            KnapsackSolution child1 = back.get(2 * i);
+            KnapsackSolution child2 = back.get(2 * i + 1);
+            KnapsackSolution.crossover(population.get(couples[2 * i]), population.get(couples[2 * i + 1]), child1, child2, random);
+            if (instrumented) {
+                nanos[CROSSOVER] += System.nanoTime() - start;
+            }
+            finishChild(child1, random, worker, inPlaceMutationRate);
+            finishChild(child2, random, worker, inPlaceMutationRate);
+        }
+    }
+
+    public KnapsackSolution solveSteadyState(double mutationRate, long maxEvaluations) {
+        return solveSteadyState(mutationRate, maxEvaluations, Replacement.WORST);
+    }
+
+    /**
+     * Steady-state variant of solve: each step picks two parents by binary tournament,
+     * breeds two children and copies each of them over the worst individual (or over the
+     * loser of a binary tournament) when it is at least as fit. Nothing is allocated per
+     * step, and the run stops on the optimum or after maxEvaluations child evaluations.
+     * There are no generations here, so the listeners are not notified.
+     */
+    public KnapsackSolution solveSteadyState(double mutationRate, long maxEvaluations, Replacement replacement) {
+        KnapsackSolution child1 = new KnapsackSolution(problem);
+        KnapsackSolution child2 = new KnapsackSolution(problem);
+        evaluations = 0;
+        instrumented = false;
+
+        while (!this.population.getBest().isOptimal() && evaluations < maxEvaluations) {
+            KnapsackSolution mother = this.population.get(tournament(true));
+            KnapsackSolution father = this.population.get(tournament(true));
+
+            KnapsackSolution.crossover(mother, father, child1, child2, random);
+            insert(finishChild(child1, random, 0, mutationRate), replacement);
+            insert(finishChild(child2, random, 0, mutationRate), replacement);
+            evaluations += 2;
         }
 
         return this.population.getBest();
     }
 
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    private void insert(KnapsackSolution child, Replacement replacement) {
+        int index = replacement == Replacement.WORST ? this.population.getWorstIndex() : tournament(false);
+        if (child.fitness() >= this.population.getFitness(index)) {
+            this.population.overwrite(index, child);
+        }
+    }
+
+    // Binary tournament: the index of the fitter (or, if best is false, the less fit) of two random individuals.
+    private int tournament(boolean best) {
+        int a = random.nextInt(this.population.size());
+        int b = random.nextInt(this.population.size());
+        boolean aWins = this.population.getFitness(a) >= this.population.getFitness(b);
+        return aWins == best ? a : b;
+    }
+
     public static void main(String[] args) {
         int numberOfItems = 6;
         int[] utilities = {15, 10, 20, 25, 30, 35};
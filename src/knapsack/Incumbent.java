@@ -0,0 +1,16 @@
+package knapsack;
+
+/**
+ * Best solution found so far by an asynchronous run, at the generation it was found.
+ * The solution is copied in and out, so an Incumbent never changes.
+ */
+public record Incumbent(int generation, int fitness, KnapsackSolution solution) {
+    public Incumbent {
+        solution = solution.copy();
+    }
+
+    @Override
+    public KnapsackSolution solution() {
+        return solution.copy();
+    }
+}
@@ -0,0 +1,210 @@
+package knapsack;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hub of a multi-process island model. Workers (IslandWorker, usually one per process)
+ * connect over TCP, and every migrant a worker sends is relayed to the next worker of a
+ * ring ordered by arrival. Workers may join and leave at any time; the ring simply grows
+ * or shrinks. The coordinator also keeps the best genome reported by any worker.
+ * Everything runs on one thread over non-blocking channels.
+ */
+public class IslandCoordinator implements Runnable {
+    private final KnapsackProblem problem;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    // Migrants are dropped for a worker that already has this many frames waiting to be sent.
+    private static final int MAX_PENDING_FRAMES = 256;
+
+    private final List<MigrationChannel> workers = new ArrayList<>();
+    private volatile boolean running = true;
+    private KnapsackSolution best;
+
+    public IslandCoordinator(KnapsackProblem problem, InetSocketAddress address) throws IOException {
+        this.problem = problem;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public synchronized KnapsackSolution getBest() {
+        return best;
+    }
+
+    public synchronized int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * Tells every worker to stop, and ends run().
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(100);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        MigrationChannel worker = (MigrationChannel) key.attachment();
+                        try {
+                            if (key.isReadable() && !worker.read(this::onFrame)) {
+                                leave(worker);
+                                continue;
+                            }
+                            if (key.isWritable()) {
+                                flush(worker);
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            leave(worker);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            shutdown();
+        } catch (IOException | ClosedSelectorException e) {
+            throw new IllegalStateException("Island coordinator failed", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            MigrationChannel worker = new MigrationChannel(channel);
+            channel.register(selector, SelectionKey.OP_READ, worker);
+        }
+    }
+
+    private void onFrame(MigrationChannel worker, byte type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case MigrationProtocol.HELLO:
+                if (payload.getInt() != problem.getNumberOfItems() || payload.getInt() != problem.getDimensions()) {
+                    throw new IOException("Worker solves another instance");
+                }
+                synchronized (this) {
+                    workers.add(worker);
+                }
+                break;
+            case MigrationProtocol.MIGRANT:
+                relay(worker, payload);
+                break;
+            case MigrationProtocol.BEST:
+                report(payload);
+                break;
+            default:
+                throw new IOException("Unexpected frame type " + type);
+        }
+    }
+
+    private void relay(MigrationChannel from, ByteBuffer payload) throws IOException {
+        MigrationChannel to;
+        synchronized (this) {
+            int index = workers.indexOf(from);
+            if (index < 0 || workers.size() < 2) {
+                return;
+            }
+            to = workers.get((index + 1) % workers.size());
+        }
+        if (to.pendingFrames() >= MAX_PENDING_FRAMES) {
+            return;
+        }
+        to.send(MigrationProtocol.copy(MigrationProtocol.MIGRANT, payload));
+        flush(to);
+    }
+
+    private void report(ByteBuffer payload) {
+        synchronized (this) {
+            if (best != null && MigrationProtocol.genomeFitness(payload) <= best.fitness()) {
+                return;
+            }
+        }
+        KnapsackSolution candidate = MigrationProtocol.readGenome(payload, problem);
+        synchronized (this) {
+            if (best == null || candidate.fitness() > best.fitness()) {
+                best = candidate;
+            }
+        }
+    }
+
+    private void flush(MigrationChannel worker) {
+        SelectionKey key = worker.channel().keyFor(selector);
+        try {
+            boolean done = worker.flush();
+            key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            leave(worker);
+        }
+    }
+
+    private synchronized void leave(MigrationChannel worker) {
+        workers.remove(worker);
+        worker.close();
+    }
+
+    private void shutdown() throws IOException {
+        List<MigrationChannel> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>(workers);
+            workers.clear();
+        }
+        for (MigrationChannel worker : remaining) {
+            worker.send(MigrationProtocol.stop());
+            try {
+                worker.flush();
+            } catch (IOException e) {
+                // the worker already left
+            }
+            worker.close();
+        }
+        server.close();
+        selector.close();
+    }
+
+    /**
+     * Usage: IslandCoordinator port instance seconds
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: IslandCoordinator <port> <instance file> <seconds>");
+            System.exit(2);
+        }
+        KnapsackProblem problem = ProblemLoader.read(Path.of(args[1]));
+        IslandCoordinator coordinator = new IslandCoordinator(problem, new InetSocketAddress(Integer.parseInt(args[0])));
+        Thread thread = new Thread(coordinator, "island-coordinator");
+        thread.start();
+
+        Thread.sleep(1000L * Integer.parseInt(args[2]));
+        System.out.println("Workers connected: " + coordinator.getWorkerCount());
+        coordinator.stop();
+        thread.join();
+
+        KnapsackSolution best = coordinator.getBest();
+        System.out.println("Best solution found: " + (best == null ? "none" : best.fitness()));
+    }
+}
@@ -0,0 +1,156 @@
+package knapsack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Island model: several independent genetic algorithms, each evolved on its own thread,
+ * which send copies of their best individuals to each other every few generations.
+ * Migrants go through lock-free queues, so an island never waits for another one.
+ */
+public class IslandModel {
+    public enum Topology { RING, RANDOM }
+
+    private GeneticAlgorithm[] islands;
+    private List<ConcurrentLinkedQueue<KnapsackSolution>> mailboxes;
+    private SplittableRandom[] streams;
+    private Topology topology = Topology.RING;
+    private int migrationInterval = 10;
+    private int migrants = 1;
+    private volatile boolean optimumFound;
+
+    public IslandModel(KnapsackProblem problem, int islandCount, int k) {
+        this(problem, islandCount, k, new RandomSource());
+    }
+
+    public IslandModel(KnapsackProblem problem, int islandCount, int k, RandomSource randomSource) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("An island model needs at least one island");
+        }
+        this.islands = new GeneticAlgorithm[islandCount];
+        this.mailboxes = new ArrayList<>(islandCount);
+        this.streams = randomSource.split(islandCount);
+        for (int i = 0; i < islandCount; i++) {
+            islands[i] = new GeneticAlgorithm(problem, k, new RandomSource(streams[i].nextLong()));
+            mailboxes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Sets how often (in generations) each island emigrates, and how many of its best individuals it sends.
+     */
+    public void setMigration(int interval, int migrants) {
+        if (interval < 1 || migrants < 0) {
+            throw new IllegalArgumentException("Invalid migration policy: every " + interval + " generations, " + migrants + " migrants");
+        }
+        this.migrationInterval = interval;
+        this.migrants = migrants;
+    }
+
+    public GeneticAlgorithm getIsland(int index) {
+        return islands[index];
+    }
+
+    public int getIslandCount() {
+        return islands.length;
+    }
+
+    /**
+     * Evolves every island on its own thread for at most the given number of generations,
+     * or until one of them reaches the optimum, and returns the best solution over all islands.
+     */
+    public KnapsackSolution solve(double mutationRate, double elitistRate, int generations) {
+        optimumFound = false;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[islands.length];
+
+        for (int i = 0; i < islands.length; i++) {
+            int island = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    evolve(island, mutationRate, elitistRate, generations);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    optimumFound = true; // stops the other islands
+                }
+            }, "island-" + i);
+            threads[i].start();
+        }
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            optimumFound = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the islands", e);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Island failed", failure.get());
+        }
+
+        return getBest();
+    }
+
+    public KnapsackSolution getBest() {
+        KnapsackSolution best = null;
+        for (GeneticAlgorithm island : islands) {
+            KnapsackSolution candidate = island.population.getBest();
+            if (best == null || candidate.fitness() > best.fitness()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void evolve(int island, double mutationRate, double elitistRate, int generations) {
+        GeneticAlgorithm ga = islands[island];
+
+        for (int generation = 1; generation <= generations && !optimumFound; generation++) {
+            ga.nextGeneration(mutationRate, elitistRate);
+
+            immigrate(island);
+            if (generation % migrationInterval == 0 && islands.length > 1) {
+                emigrate(island);
+            }
+
+            if (ga.population.getBest().isOptimal()) {
+                optimumFound = true;
+            }
+        }
+    }
+
+    private void emigrate(int island) {
+        int destination;
+        if (topology == Topology.RING) {
+            destination = (island + 1) % islands.length;
+        } else {
+            destination = streams[island].nextInt(islands.length - 1);
+            if (destination >= island) {
+                destination++;
+            }
+        }
+
+        ConcurrentLinkedQueue<KnapsackSolution> mailbox = mailboxes.get(destination);
+        for (KnapsackSolution migrant : islands[island].population.getElites(migrants)) {
+            mailbox.offer(migrant.copy());
+        }
+    }
+
+    private void immigrate(int island) {
+        Population population = islands[island].population;
+        ConcurrentLinkedQueue<KnapsackSolution> mailbox = mailboxes.get(island);
+        KnapsackSolution migrant;
+        while ((migrant = mailbox.poll()) != null) {
+            population.replaceIfFitter(migrant);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package knapsack;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * One island of a multi-process island model. It evolves its own GeneticAlgorithm and,
+ * between generations, polls its connection to the IslandCoordinator without blocking:
+ * migrants received are inserted in place of the worst individuals, and every few
+ * generations the best individuals are sent out. If the coordinator goes away the island
+ * keeps evolving on its own.
+ */
+public class IslandWorker {
+    private final GeneticAlgorithm ga;
+    private final InetSocketAddress coordinator;
+    private int migrationInterval = 10;
+    private int migrants = 1;
+    private boolean stopped;
+
+    public IslandWorker(GeneticAlgorithm ga, InetSocketAddress coordinator) {
+        this.ga = ga;
+        this.coordinator = coordinator;
+    }
+
+    public void setMigration(int interval, int migrants) {
+        if (interval < 1 || migrants < 0) {
+            throw new IllegalArgumentException("Invalid migration policy: every " + interval + " generations, " + migrants + " migrants");
+        }
+        this.migrationInterval = interval;
+        this.migrants = migrants;
+    }
+
+    public KnapsackSolution run(double mutationRate, double elitistRate, int generations) throws IOException {
+        stopped = false;
+        try (Selector selector = Selector.open()) {
+            MigrationChannel channel = new MigrationChannel(SocketChannel.open(coordinator));
+            SelectionKey key = channel.channel().register(selector, SelectionKey.OP_READ);
+            channel.send(MigrationProtocol.hello(ga.problem));
+
+            for (int generation = 1; generation <= generations && !stopped; generation++) {
+                ga.nextGeneration(mutationRate, elitistRate);
+                if (ga.population.getBest().isOptimal()) {
+                    stopped = true;
+                }
+
+                if (channel != null && (generation % migrationInterval == 0 || stopped)) {
+                    for (KnapsackSolution migrant : ga.population.getElites(migrants)) {
+                        channel.send(MigrationProtocol.genome(MigrationProtocol.MIGRANT, migrant));
+                    }
+                    channel.send(MigrationProtocol.genome(MigrationProtocol.BEST, ga.population.getBest()));
+                }
+                if (channel != null && !poll(selector, key, channel)) {
+                    channel.close();
+                    channel = null;
+                }
+            }
+
+            if (channel != null) {
+                channel.send(MigrationProtocol.genome(MigrationProtocol.BEST, ga.population.getBest()));
+                drain(selector, key, channel);
+                channel.close();
+            }
+        }
+        return ga.population.getBest();
+    }
+
+    // Exchanges whatever can be exchanged right now; returns false once the coordinator is gone
+    // or has sent a malformed frame, after which the island goes on alone.
+    private boolean poll(Selector selector, SelectionKey key, MigrationChannel channel) {
+        try {
+            selector.selectNow();
+            selector.selectedKeys().clear();
+            if (key.isReadable() && !channel.read(this::onFrame)) {
+                return false;
+            }
+            boolean flushed = channel.flush();
+            key.interestOps(flushed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Gives the last frames up to a second to leave before the connection is closed.
+    private void drain(Selector selector, SelectionKey key, MigrationChannel channel) {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        try {
+            key.interestOps(SelectionKey.OP_WRITE);
+            while (!channel.flush() && System.nanoTime() < deadline) {
+                selector.select(10);
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            // the coordinator is gone, the result is still returned locally
+        }
+    }
+
+    private void onFrame(MigrationChannel channel, byte type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case MigrationProtocol.MIGRANT:
+                ga.population.replaceIfFitter(MigrationProtocol.readGenome(payload, ga.problem));
+                break;
+            case MigrationProtocol.STOP:
+                stopped = true;
+                break;
+            default:
+                throw new IOException("Unexpected frame type " + type);
+        }
+    }
+
+    /**
+     * Usage: IslandWorker host port instance generations [k] [seed]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: IslandWorker <host> <port> <instance file> <generations> [k] [seed]");
+            System.exit(2);
+        }
+        KnapsackProblem problem = ProblemLoader.read(Path.of(args[2]));
+        int k = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+        RandomSource randomSource = args.length > 5 ? new RandomSource(Long.parseLong(args[5])) : new RandomSource();
+
+        IslandWorker worker = new IslandWorker(new GeneticAlgorithm(problem, k, randomSource),
+                new InetSocketAddress(args[0], Integer.parseInt(args[1])));
+        KnapsackSolution best = worker.run(0.05, 0.2, Integer.parseInt(args[3]));
+        System.out.println("Best solution found: " + best.fitness());
+    }
+}
@@ -1,49 +1,421 @@
 package knapsack;
 
 import java.util.Arrays;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToDoubleFunction;
+import java.util.random.RandomGenerator;
 
 public class KnapsackProblem {
     private int numberOfItems;
+    private int dimensions;
     private int[] utilities;
-    private int[][] costs;
+    // Item-major flat matrix: the cost of item i in dimension j is costs[i * dimensions + j].
+    private int[] costs;
     private int[] budgets;
 
+    public enum Ordering { UTILITY, SURROGATE }
+
+    // Item permutations used by repair, best item first.
+    private int[] utilityOrder;
+
+    // Solvers on other threads repair while the setters may run, so the surrogate weights, their
+    // ordering and the chosen ordering are never changed in place: the setters build a new
+    // snapshot and publish it whole through the volatile field, and a repair reads it once.
+    private record Orderings(Ordering repairOrdering, double[] surrogateWeights, int[] surrogateOrder) {
+    }
+
+    private volatile Orderings orderings;
+
+    // One random key per item for the Zobrist fingerprints of the solutions, from a fixed seed
+    // so that fingerprints are comparable across runs and processes.
+    private static final long ZOBRIST_SEED = 0x9E3779B97F4A7C15L;
+    private long[] zobristKeys;
+
+    // Lagrangian upper bound and its multipliers, computed on first use by bound(). Each
+    // iteration costs n * d multiply-adds: large instances get fewer iterations, so that the
+    // bound stays around a second of work, and any instance stops once the gap to the greedy
+    // solution is below BOUND_GAP of the bound.
+    private static final int BOUND_ITERATIONS = 500;
+    private static final int MIN_BOUND_ITERATIONS = 10;
+    private static final long BOUND_WORK = 1L << 29;
+    private static final double BOUND_GAP = 1e-4;
+    private volatile int upperBound = -1;
+    private double[] dualWeights;
+
+    // 64-bit hash of the instance data, computed on first use; 0 means not computed yet.
+    private long contentHash;
+
     public KnapsackProblem(int numberOfItems, int[] utilities, int[][] costs, int[] budgets) {
+        this(numberOfItems, utilities, flatten(costs, budgets.length), budgets);
+    }
+
+    KnapsackProblem(int numberOfItems, int[] utilities, int[] costs, int[] budgets) {
+        if (costs.length != numberOfItems * budgets.length) {
+            throw new IllegalArgumentException("Expected " + numberOfItems * budgets.length + " costs, got " + costs.length);
+        }
         this.numberOfItems = numberOfItems;
+        this.dimensions = budgets.length;
         this.utilities = utilities;
         this.costs = costs;
         this.budgets = budgets;
+
+        this.zobristKeys = new SplittableRandom(ZOBRIST_SEED).longs(numberOfItems).toArray();
+        this.utilityOrder = order(i -> utilities[i]);
+        double[] weights = new double[dimensions];
+        for (int j = 0; j < dimensions; j++) {
+            weights[j] = budgets[j] > 0 ? 1.0 / budgets[j] : 1.0;
+        }
+        setSurrogateWeights(weights);
+    }
+
+    // Sorts the item indices by descending score; ties keep the index order. Each item is packed
+    // into one long, the score in the high bits and the index in the low ones, so that a
+    // primitive sort does the work. The score loses its last log2(n) bits there, so items whose
+    // truncated scores are equal, which are rare and already in index order, are then put in
+    // exact order by an insertion sort over their run.
+    private int[] order(IntToDoubleFunction score) {
+        int indexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(numberOfItems - 1));
+        double[] scores = new double[numberOfItems];
+        long[] keys = new long[numberOfItems];
+        for (int i = 0; i < numberOfItems; i++) {
+            scores[i] = score.applyAsDouble(i);
+            // Ordered like Double.compare on the signed longs, then reversed for a descending sort.
+            long bits = Double.doubleToLongBits(scores[i]);
+            long descending = ~(bits ^ ((bits >> 63) & Long.MAX_VALUE));
+            keys[i] = (descending >> indexBits << indexBits) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[numberOfItems];
+        long mask = (1L << indexBits) - 1;
+        for (int l = 0, start = 0; l < numberOfItems; l++) {
+            int item = (int) (keys[l] & mask);
+            if (l > 0 && keys[l] >> indexBits != keys[l - 1] >> indexBits) {
+                start = l;
+            }
+            int position = l;
+            while (position > start && Double.compare(scores[order[position - 1]], scores[item]) < 0) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = item;
+        }
+        return order;
+    }
+
+    private static int[] flatten(int[][] costs, int dimensions) {
+        int[] flat = new int[costs.length * dimensions];
+        for (int i = 0; i < costs.length; i++) {
+            System.arraycopy(costs[i], 0, flat, i * dimensions, dimensions);
+        }
+        return flat;
     }
 
     public int getNumberOfItems() {
         return numberOfItems;
     }
 
+    public int getDimensions() {
+        return dimensions;
+    }
+
     public int getUtility(int index) {
         return utilities[index];
     }
 
+    public int getCost(int index, int dimension) {
+        return costs[index * dimensions + dimension];
+    }
+
     public int[] getCosts(int index) {
-        return costs[index];
+        return Arrays.copyOfRange(costs, index * dimensions, (index + 1) * dimensions);
+    }
+
+    /**
+     * Returns the utilities, which must not be modified.
+     */
+    int[] getUtilities() {
+        return utilities;
+    }
+
+    /**
+     * Returns the flat item-major cost matrix, which must not be modified.
+     */
+    int[] getCostMatrix() {
+        return costs;
     }
 
     public int[] getBudgets() {
         return budgets;
     }
 
+    /**
+     * Sets the dual weights of the surrogate relaxation and recomputes the surrogate ordering,
+     * which ranks items by utility / sum_j(weights[j] * cost[i][j]).
+     * The default weights are 1 / budget, i.e. each cost relative to its capacity.
+     */
+    public synchronized void setSurrogateWeights(double[] weights) {
+        double[] surrogateWeights = weights.clone();
+        int[] surrogateOrder = order(i -> {
+            double weightedCost = 0;
+            for (int j = 0, k = i * dimensions; j < dimensions; j++, k++) {
+                weightedCost += surrogateWeights[j] * costs[k];
+            }
+            return weightedCost > 0 ? utilities[i] / weightedCost : Double.POSITIVE_INFINITY;
+        });
+        Orderings current = orderings;
+        orderings = new Orderings(current == null ? Ordering.UTILITY : current.repairOrdering(),
+                surrogateWeights, surrogateOrder);
+    }
+
+    public double[] getSurrogateWeights() {
+        return orderings.surrogateWeights().clone();
+    }
+
+    /**
+     * Chooses the ordering used by repair. Solvers already running pick it up on their next repair.
+     */
+    public synchronized void setRepairOrdering(Ordering repairOrdering) {
+        Orderings current = orderings;
+        orderings = new Orderings(repairOrdering, current.surrogateWeights(), current.surrogateOrder());
+    }
+
+    public Ordering getRepairOrdering() {
+        return orderings.repairOrdering();
+    }
+
+    /**
+     * Returns the permutation of items used by repair, most desirable item first.
+     * The array is shared and must not be modified.
+     */
+    public int[] getRepairOrder() {
+        Orderings current = orderings;
+        return current.repairOrdering() == Ordering.SURROGATE ? current.surrogateOrder() : utilityOrder;
+    }
+
+    /**
+     * 64-bit hash of the utilities, costs and budgets, stable across runs and processes.
+     * Equal instances have equal hashes; equal hashes still need sameContent().
+     */
+    public long contentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = ((long) numberOfItems << 32) | dimensions;
+            hash = hash(hash(hash(hash, utilities), costs), budgets);
+            // Final avalanche (MurmurHash3 fmix64) so that close instances land far apart.
+            hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+            hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            contentHash = hash == 0 ? 1 : hash;
+        }
+        return contentHash;
+    }
+
+    // FNV-1a over whole ints.
+    private static long hash(long hash, int[] values) {
+        hash ^= values.length;
+        for (int value : values) {
+            hash = (hash ^ value) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns true when both instances have the same utilities, costs and budgets.
+     */
+    public boolean sameContent(KnapsackProblem other) {
+        return this == other || (contentHash() == other.contentHash()
+                && Arrays.equals(budgets, other.budgets)
+                && Arrays.equals(utilities, other.utilities)
+                && Arrays.equals(costs, other.costs));
+    }
+
     public int getMaxUtility() {
         return Arrays.stream(utilities).sum();
     }
 
-    public KnapsackSolution generateRandomSolution() {
-        KnapsackSolution solution = new KnapsackSolution(this);
-        Random random = new Random();
+    /**
+     * Returns an upper bound on the utility of any feasible solution: the Lagrangian
+     * relaxation of the budgets, minimised by subgradient descent, which converges to the
+     * LP relaxation bound, or close to it on large instances where the descent is cut short.
+     * Computed on the first call and cached; GeneticAlgorithm.solve asks for it before its
+     * stop policy starts.
+     */
+    public int getUpperBound() {
+        int bound = upperBound;
+        return bound >= 0 ? bound : bound();
+    }
 
-        for (int i = 0; i < numberOfItems; i++) {
-            solution.setItem(i, random.nextBoolean());
+    /**
+     * Returns the budget multipliers of the upper bound. They make good surrogate weights:
+     * {@code setSurrogateWeights(getDualWeights())} ranks items by their LP reduced ratio.
+     */
+    public double[] getDualWeights() {
+        getUpperBound();
+        return dualWeights.clone();
+    }
+
+    // L(mu) = sum_j mu_j b_j + sum_i max(0, u_i - sum_j mu_j c_ij) bounds the optimum for any mu >= 0.
+    // It is minimised with Polyak steps towards the greedy lower bound; the step size is halved
+    // whenever the bound stops improving for a while.
+    private synchronized int bound() {
+        if (upperBound >= 0) {
+            return upperBound;
+        }
+        int d = dimensions;
+        double lowerBound = greedyUtility();
+        double[] mu = new double[d];
+        double[] best = new double[d];
+        double[] gradient = new double[d];
+        double bestBound = Double.POSITIVE_INFINITY;
+        double step = 2;
+        int stale = 0;
+        long work = Math.max(1, (long) numberOfItems * d);
+        long iterations = Math.max(MIN_BOUND_ITERATIONS, Math.min(BOUND_ITERATIONS, BOUND_WORK / work));
+
+        for (int t = 0; t < iterations && step > 1e-4; t++) {
+            double bound = 0;
+            for (int j = 0; j < d; j++) {
+                bound += mu[j] * budgets[j];
+                gradient[j] = budgets[j];
+            }
+            for (int i = 0, k = 0; i < numberOfItems; i++, k += d) {
+                double reduced = utilities[i];
+                for (int j = 0; j < d; j++) {
+                    reduced -= mu[j] * costs[k + j];
+                }
+                if (reduced > 0) {
+                    bound += reduced;
+                    for (int j = 0; j < d; j++) {
+                        gradient[j] -= costs[k + j];
+                    }
+                }
+            }
+
+            if (bound < bestBound - 1e-9) {
+                bestBound = bound;
+                System.arraycopy(mu, 0, best, 0, d);
+                stale = 0;
+            } else if (++stale == 20) {
+                step /= 2;
+                stale = 0;
+            }
+            if (bestBound - lowerBound < 1) {
+                break; // the greedy solution is optimal
+            }
+            if (bestBound - lowerBound < BOUND_GAP * bestBound) {
+                break; // close enough for a stopping test
+            }
+
+            double norm = 0;
+            for (int j = 0; j < d; j++) {
+                // Components that the projection would clamp do not move mu.
+                if (mu[j] > 0 || gradient[j] < 0) {
+                    norm += gradient[j] * gradient[j];
+                }
+            }
+            if (norm == 0) {
+                break; // mu is optimal
+            }
+            double length = step * (bound - lowerBound) / norm;
+            for (int j = 0; j < d; j++) {
+                mu[j] = Math.max(0, mu[j] - length * gradient[j]);
+            }
+        }
+
+        // The tolerance covers rounding in the sums; the bound stays valid for integer utilities.
+        this.dualWeights = best;
+        this.upperBound = (int) Math.min(getMaxUtility(), Math.floor(bestBound + 1e-9 * bestBound + 1e-6));
+        return upperBound;
+    }
+
+    // Utility of the solution that takes items in surrogate order while they fit.
+    private int greedyUtility() {
+        int[] totals = new int[dimensions];
+        int utility = 0;
+        for (int i : orderings.surrogateOrder()) {
+            if (fits(i, totals)) {
+                for (int j = 0, k = i * dimensions; j < dimensions; j++, k++) {
+                    totals[j] += costs[k];
+                }
+                utility += utilities[i];
+            }
+        }
+        return utility;
+    }
+
+    /**
+     * Sums the utility and the costs of every item selected in a packed genome.
+     * The costs are added into totals, and the utility sum is returned.
+     */
+    int accumulate(long[] words, int[] totals) {
+        int d = dimensions;
+        int utilitySum = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                utilitySum += utilities[i];
+                // Contiguous row of d ints, unrolled and vectorised by the JIT.
+                for (int j = 0, k = i * d; j < d; j++, k++) {
+                    totals[j] += costs[k];
+                }
+            }
+        }
+        return utilitySum;
+    }
+
+    long getZobristKey(int index) {
+        return zobristKeys[index];
+    }
+
+    /**
+     * Computes the Zobrist fingerprint of a packed genome from scratch.
+     */
+    long fingerprint(long[] words) {
+        long fingerprint = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                fingerprint ^= zobristKeys[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of budgets exceeded by a cost vector.
+     */
+    int countViolations(int[] totals) {
+        int violations = 0;
+        for (int j = 0; j < dimensions; j++) {
+            violations += totals[j] > budgets[j] ? 1 : 0;
+        }
+        return violations;
+    }
+
+    /**
+     * Returns true when item index can be added to a cost vector without exceeding any budget.
+     */
+    boolean fits(int index, int[] totals) {
+        for (int j = 0, k = index * dimensions; j < dimensions; j++, k++) {
+            if (totals[j] + costs[k] > budgets[j]) {
+                return false;
+            }
         }
+        return true;
+    }
 
+    public KnapsackSolution generateRandomSolution() {
+        return generateRandomSolution(ThreadLocalRandom.current());
+    }
+
+    public KnapsackSolution generateRandomSolution(RandomGenerator random) {
+        KnapsackSolution solution = new KnapsackSolution(this);
+        solution.randomize(random);
         return solution;
     }
-}
\ No newline at end of file
+}
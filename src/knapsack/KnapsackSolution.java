@@ -1,134 +1,262 @@
 package knapsack;
 
 import java.util.Arrays;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class KnapsackSolution {
     private KnapsackProblem problem;
-    private boolean[] items;
+    // Genome packed 64 items per word, item i lives at bit (i & 63) of words[i >>> 6].
+    // Bits past numberOfItems in the last word are always kept at zero.
+    private long[] words;
+    private int numberOfItems;
+
+    // Cached evaluation, kept in step with the genome by every single-bit write.
+    // Bulk writes (crossover) only set dirty and the cache is rebuilt on the next read.
+    private int utility;
+    private int[] totalCosts;
+    private int violations;
+    // Zobrist fingerprint: XOR of the random keys of the selected items.
+    private long fingerprint;
+    private boolean dirty;
 
 
     public KnapsackSolution(KnapsackProblem problem) {
         this.problem = problem;
-        this.items = new boolean[problem.getNumberOfItems()];
+        this.numberOfItems = problem.getNumberOfItems();
+        this.words = new long[(numberOfItems + 63) >>> 6];
+        this.totalCosts = new int[problem.getBudgets().length];
+        this.dirty = true;
+    }
+
+    public KnapsackSolution copy() {
+        KnapsackSolution copy = new KnapsackSolution(problem);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites this solution with the genome and cached evaluation of another solution
+     * of the same problem, without allocating.
+     */
+    public void copyFrom(KnapsackSolution other) {
+        System.arraycopy(other.words, 0, this.words, 0, words.length);
+        System.arraycopy(other.totalCosts, 0, this.totalCosts, 0, totalCosts.length);
+        this.utility = other.utility;
+        this.violations = other.violations;
+        this.fingerprint = other.fingerprint;
+        this.dirty = other.dirty;
     }
 
     public void setItem(int index, boolean value) {
-        items[index] = value;
+        long bit = 1L << index;
+        boolean current = (words[index >>> 6] & bit) != 0;
+        if (current != value) {
+            words[index >>> 6] ^= bit;
+            if (!dirty) {
+                update(index, value ? 1 : -1);
+            }
+        }
     }
 
     public boolean getItem(int index) {
-        return items[index];
+        return (words[index >>> 6] & (1L << index)) != 0;
     }
 
-    public int fitness() {
-        int utilitySum = 0;
-        int[] totalCosts = new int[problem.getBudgets().length];
-
-        for (int i = 0; i < items.length; i++) {
-            if (items[i]) {
-                utilitySum += problem.getUtility(i);
-                int[] itemCosts = problem.getCosts(i);
-                for (int j = 0; j < itemCosts.length; j++) {
-                    totalCosts[j] += itemCosts[j];
-                }
+    public void flipItem(int index) {
+        long bit = 1L << index;
+        words[index >>> 6] ^= bit;
+        if (!dirty) {
+            update(index, (words[index >>> 6] & bit) != 0 ? 1 : -1);
+        }
+    }
+
+    // Adds (sign = 1) or removes (sign = -1) one item from the cached evaluation in O(d).
+    private void update(int index, int sign) {
+        int[] budgets = problem.getBudgets();
+        int[] costs = problem.getCostMatrix();
+        int d = totalCosts.length;
+        fingerprint ^= problem.getZobristKey(index);
+        utility += sign * problem.getUtility(index);
+        for (int j = 0, k = index * d; j < d; j++, k++) {
+            boolean wasOver = totalCosts[j] > budgets[j];
+            totalCosts[j] += sign * costs[k];
+            boolean isOver = totalCosts[j] > budgets[j];
+            if (wasOver != isOver) {
+                violations += isOver ? 1 : -1;
             }
         }
+    }
+
+    private void evaluate() {
+        Arrays.fill(totalCosts, 0);
+        utility = problem.accumulate(words, totalCosts);
+        violations = problem.countViolations(totalCosts);
+        fingerprint = problem.fingerprint(words);
+        dirty = false;
+    }
+
+    /**
+     * Returns the packed genome itself; callers writing into it must call invalidate().
+     */
+    long[] getWords() {
+        return words;
+    }
 
-        for (int i = 0; i < totalCosts.length; i++) {
-            if (totalCosts[i] > problem.getBudgets()[i]) {
-                return 0; // If any budget constraint is violated, the solution is not feasible
+    /**
+     * Marks the cached evaluation as stale after the words were written in bulk.
+     */
+    void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Returns the index of the first selected item at or after {@code from}, or -1 if there is none.
+     */
+    public int nextItem(int from) {
+        if (from >= numberOfItems) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
             }
+            word = words[w];
+        }
+    }
+
+    public int countItems() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int distance(KnapsackSolution other) {
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            count += Long.bitCount(this.words[w] ^ other.words[w]);
         }
+        return count;
+    }
 
-        return utilitySum;
+    public int fitness() {
+        if (dirty) {
+            evaluate();
+        }
+        return violations == 0 ? utility : 0; // If any budget constraint is violated, the solution is not feasible
     }
 
+    public boolean isFeasible() {
+        if (dirty) {
+            evaluate();
+        }
+        return violations == 0;
+    }
+
+    public int getTotalCost(int dimension) {
+        if (dirty) {
+            evaluate();
+        }
+        return totalCosts[dimension];
+    }
+
+    /**
+     * 64-bit hash of the genome, updated in O(1) by every single-bit write. Two solutions
+     * with different fingerprints are different; equal fingerprints still need equals().
+     */
+    public long fingerprint() {
+        if (dirty) {
+            evaluate();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns true when the fitness reaches the upper bound of the problem, which proves optimality.
+     * A solution can be optimal without reaching the bound when the LP relaxation has a gap.
+     */
     public boolean isOptimal() {
-        return fitness() == problem.getMaxUtility();
+        return fitness() >= problem.getUpperBound();
     }
 
     public boolean equals(KnapsackSolution other) {
-        for (int i = 0; i < items.length; i++) {
-            if (this.items[i] != other.items[i]) {
-                return false;
-            }
-        }
-        return true;
+        return this.fingerprint() == other.fingerprint() && Arrays.equals(this.words, other.words);
     }
 
     public void mutate() {
-        Random random = new Random();
-        int index = random.nextInt(items.length);
-        items[index] = !items[index];
+        mutate(ThreadLocalRandom.current());
     }
 
-    public void repair() {
-        // Step 1: Order items by descending utility
-        Integer[] indices = new Integer[items.length];
-        for (int i = 0; i < items.length; i++) {
-            indices[i] = i;
-        }
-        Arrays.sort(indices, (a, b) -> Integer.compare(problem.getUtility(b), problem.getUtility(a)));
-
-        // Step 2: Remove items that exceed the budget
-        int[] totalCosts = new int[problem.getBudgets().length];
-        for (int i = 0; i < items.length; i++) {
-            if (items[i]) {
-                int[] itemCosts = problem.getCosts(i);
-                for (int j = 0; j < itemCosts.length; j++) {
-                    totalCosts[j] += itemCosts[j];
-                }
-            }
+    public void mutate(RandomGenerator random) {
+        flipItem(random.nextInt(numberOfItems));
+    }
+
+    /**
+     * Draws every item with probability 1/2, one random word at a time.
+     */
+    void randomize(RandomGenerator random) {
+        for (int w = 0; w < words.length; w++) {
+            words[w] = random.nextLong();
+        }
+        if ((numberOfItems & 63) != 0) {
+            words[words.length - 1] &= (1L << numberOfItems) - 1;
         }
+        invalidate();
+    }
 
-        for (int l = items.length - 1; l >= 0; l--) {
-            int i = indices[l];
-            if (items[i]) {
-                boolean exceedsBudget = false;
-                int[] itemCosts = problem.getCosts(i);
-                for (int j = 0; j < itemCosts.length; j++) {
-                    if (totalCosts[j] > problem.getBudgets()[j]) {
-                        exceedsBudget = true;
-                        break;
-                    }
-                }
-                if (exceedsBudget) {
-                    items[i] = false;
-                    for (int j = 0; j < itemCosts.length; j++) {
-                        totalCosts[j] -= itemCosts[j];
-                    }
-                }
+    /**
+     * Uniform crossover performed a word at a time: each bit of a random mask decides
+     * whether child1 inherits the father's or the mother's gene, child2 gets the other one.
+     */
+    public static void crossover(KnapsackSolution mother, KnapsackSolution father,
+                                 KnapsackSolution child1, KnapsackSolution child2, RandomGenerator random) {
+        long[] m = mother.words;
+        long[] f = father.words;
+        for (int w = 0; w < m.length; w++) {
+            long mask = random.nextLong();
+            child1.words[w] = (f[w] & mask) | (m[w] & ~mask);
+            child2.words[w] = (m[w] & mask) | (f[w] & ~mask);
+        }
+        child1.invalidate();
+        child2.invalidate();
+    }
+
+    public void repair() {
+        // Step 1: Take the precomputed item ordering, most desirable item first
+        int[] order = problem.getRepairOrder();
+
+        // Step 2: Remove the least desirable items while any budget is exceeded
+        if (dirty) {
+            evaluate();
+        }
+        for (int l = numberOfItems - 1; l >= 0 && violations > 0; l--) {
+            int i = order[l];
+            if (getItem(i)) {
+                setItem(i, false);
             }
         }
 
         // Step 3: Add items back if they fit within the budget
-        for (int l = 0; l < items.length; l++) {
-            int i = indices[l];
-            if (!items[i]) {
-                boolean fitsBudget = true;
-                int[] itemCosts = problem.getCosts(i);
-                for (int j = 0; j < itemCosts.length; j++) {
-                    if (totalCosts[j] + itemCosts[j] > problem.getBudgets()[j]) {
-                        fitsBudget = false;
-                        break;
-                    }
-                }
-                if (fitsBudget) {
-                    items[i] = true;
-                    for (int j = 0; j < itemCosts.length; j++) {
-                        totalCosts[j] += itemCosts[j];
-                    }
-                }
+        for (int l = 0; l < numberOfItems; l++) {
+            int i = order[l];
+            if (!getItem(i) && problem.fits(i, totalCosts)) {
+                setItem(i, true);
             }
         }
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (boolean item : items) {
-            sb.append(item ? '1' : '0');
+        StringBuilder sb = new StringBuilder(numberOfItems + 12);
+        for (int i = 0; i < numberOfItems; i++) {
+            sb.append(getItem(i) ? '1' : '0');
         }
         sb.append(" : ").append(fitness());
         return sb.toString();
@@ -0,0 +1,47 @@
+package knapsack;
+
+import ga.StopPolicy;
+
+import java.time.Duration;
+
+/**
+ * Something that solves the knapsack problem it was built for.
+ */
+public interface KnapsackSolver {
+    // Below this number of items an exact search is usually faster than the genetic algorithm.
+    int EXACT_LIMIT = 200;
+
+    KnapsackSolution solve();
+
+    /**
+     * Picks a solver by instance size. Small instances are solved by branch and bound; when
+     * the search runs out of its half of the time its incumbent seeds a genetic algorithm,
+     * which then takes over. Each solve returns within timeLimit, give or take a generation.
+     */
+    static KnapsackSolver forProblem(KnapsackProblem problem, Duration timeLimit) {
+        if (problem.getNumberOfItems() >= EXACT_LIMIT) {
+            return () -> new GeneticAlgorithm(problem, 50)
+                    .solve(0.05, 0.2, policy(System.nanoTime() + timeLimit.toNanos()));
+        }
+        return () -> {
+            long deadline = System.nanoTime() + timeLimit.toNanos();
+            BranchAndBound exact = new BranchAndBound(problem);
+            exact.setTimeLimit(timeLimit.dividedBy(2));
+            KnapsackSolution incumbent = exact.solve();
+            if (exact.isProvenOptimal()) {
+                return incumbent;
+            }
+            GeneticAlgorithm ga = new GeneticAlgorithm(problem, 50);
+            ga.seed(incumbent);
+            KnapsackSolution best = ga.solve(0.05, 0.2, policy(deadline));
+            return best.fitness() > incumbent.fitness() ? best : incumbent;
+        };
+    }
+
+    // The policy of GeneticAlgorithm.solve(), cut short at an absolute System.nanoTime() deadline.
+    private static StopPolicy policy(long deadline) {
+        StopPolicy policy = StopPolicy.defaults(GeneticAlgorithm.DEFAULT_STAGNATION_LIMIT);
+        policy.setDeadline(deadline);
+        return policy;
+    }
+}
@@ -0,0 +1,168 @@
+package knapsack;
+
+import java.time.Duration;
+
+/**
+ * Hill climbing on a knapsack solution over three neighbourhoods: drop an item, add an
+ * item, and swap a selected item for an unselected one. Drops only pay off while the
+ * solution is infeasible, where they are done by repair(); from then on the solution
+ * stays feasible and add and swap moves are checked in O(d) against the slack of every
+ * budget, without re-evaluating the solution.
+ * An instance keeps scratch arrays and must not be shared between threads, see copy().
+ */
+public class LocalSearch {
+    public enum Strategy { FIRST_IMPROVEMENT, BEST_IMPROVEMENT }
+
+    /**
+     * Which individuals a GeneticAlgorithm improves: every child, or the elites of every generation.
+     */
+    public enum Target { CHILDREN, ELITES }
+
+    private final KnapsackProblem problem;
+    private final int n;
+    private final int d;
+    private Strategy strategy = Strategy.FIRST_IMPROVEMENT;
+    private long timeBudget = Duration.ofMillis(1).toNanos();
+
+    private final int[] slack;
+    private final int[] in;
+    private final int[] out;
+
+    public LocalSearch(KnapsackProblem problem) {
+        this.problem = problem;
+        this.n = problem.getNumberOfItems();
+        this.d = problem.getDimensions();
+        this.slack = new int[d];
+        this.in = new int[n];
+        this.out = new int[n];
+    }
+
+    /**
+     * Returns a local search with the same settings and its own scratch arrays.
+     */
+    public LocalSearch copy() {
+        LocalSearch copy = new LocalSearch(problem);
+        copy.strategy = strategy;
+        copy.timeBudget = timeBudget;
+        return copy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Bounds the time spent on one solution; the search stops at the first check past it.
+     */
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget.toNanos();
+    }
+
+    /**
+     * Climbs from the solution until no move improves it or the time budget is spent.
+     * Returns true when the fitness went up.
+     */
+    public boolean improve(KnapsackSolution solution) {
+        long deadline = System.nanoTime() + timeBudget;
+        int before = solution.fitness();
+        if (!solution.isFeasible()) {
+            solution.repair();
+        }
+
+        int[] budgets = problem.getBudgets();
+        for (int j = 0; j < d; j++) {
+            slack[j] = budgets[j] - solution.getTotalCost(j);
+        }
+
+        while (climb(solution, deadline)) {
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return solution.fitness() > before;
+    }
+
+    // Makes one improving move and returns true, or returns false at a local optimum or past the deadline.
+    private boolean climb(KnapsackSolution solution, long deadline) {
+        int[] costs = problem.getCostMatrix();
+        int selected = 0;
+        int unselected = 0;
+        for (int i = 0; i < n; i++) {
+            if (solution.getItem(i)) {
+                in[selected++] = i;
+            } else {
+                out[unselected++] = i;
+            }
+        }
+
+        int bestGain = 0;
+        int bestDrop = -1;
+        int bestAdd = -1;
+
+        // Add moves: the item must fit in the slack.
+        for (int o = 0; o < unselected; o++) {
+            int k = out[o];
+            int gain = problem.getUtility(k);
+            if (gain > bestGain && fits(costs, -1, k)) {
+                bestGain = gain;
+                bestAdd = k;
+                if (strategy == Strategy.FIRST_IMPROVEMENT) {
+                    break;
+                }
+            }
+        }
+
+        // Swap moves: the added item must fit in the slack plus what the dropped item frees.
+        for (int s = 0; s < selected && !(bestAdd >= 0 && strategy == Strategy.FIRST_IMPROVEMENT); s++) {
+            int i = in[s];
+            int utility = problem.getUtility(i);
+            for (int o = 0; o < unselected; o++) {
+                int k = out[o];
+                int gain = problem.getUtility(k) - utility;
+                if (gain > bestGain && fits(costs, i, k)) {
+                    bestGain = gain;
+                    bestDrop = i;
+                    bestAdd = k;
+                    if (strategy == Strategy.FIRST_IMPROVEMENT) {
+                        break;
+                    }
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        if (bestAdd < 0) {
+            return false;
+        }
+        if (bestDrop >= 0) {
+            move(solution, costs, bestDrop, false);
+        }
+        move(solution, costs, bestAdd, true);
+        return true;
+    }
+
+    // True when item add fits once item drop (or none if negative) is removed.
+    private boolean fits(int[] costs, int drop, int add) {
+        for (int j = 0, k = add * d, l = drop * d; j < d; j++, k++, l++) {
+            int freed = drop >= 0 ? costs[l] : 0;
+            if (costs[k] - freed > slack[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void move(KnapsackSolution solution, int[] costs, int item, boolean add) {
+        int sign = add ? -1 : 1;
+        for (int j = 0, k = item * d; j < d; j++, k++) {
+            slack[j] += sign * costs[k];
+        }
+        solution.setItem(item, add);
+    }
+}
@@ -0,0 +1,92 @@
+package knapsack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * Non-blocking framed connection: reassembles incoming MigrationProtocol frames from
+ * partial reads and queues outgoing frames until the socket accepts them.
+ */
+class MigrationChannel {
+    interface Handler {
+        void onFrame(MigrationChannel channel, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    private final SocketChannel channel;
+    private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+    private ByteBuffer input = ByteBuffer.allocate(1 << 16);
+
+    MigrationChannel(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    void send(ByteBuffer frame) {
+        output.add(frame);
+    }
+
+    int pendingFrames() {
+        return output.size();
+    }
+
+    /**
+     * Writes as many queued frames as the socket accepts, and returns true when all were written.
+     */
+    boolean flush() throws IOException {
+        while (!output.isEmpty()) {
+            ByteBuffer frame = output.peek();
+            channel.write(frame);
+            if (frame.hasRemaining()) {
+                return false;
+            }
+            output.poll();
+        }
+        return true;
+    }
+
+    /**
+     * Reads what is available and hands every complete frame to the handler.
+     * Returns false once the peer has closed the connection.
+     */
+    boolean read(Handler handler) throws IOException {
+        int read;
+        while ((read = channel.read(input)) > 0) {
+            input.flip();
+            while (input.remaining() >= 4) {
+                int length = input.getInt(input.position());
+                if (length < 1 || length > MigrationProtocol.MAX_FRAME) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (input.remaining() < 4 + length) {
+                    if (4 + length > input.capacity()) {
+                        input = ByteBuffer.allocate(4 + length).put(input);
+                        input.flip();
+                    }
+                    break;
+                }
+                input.getInt();
+                byte type = input.get();
+                ByteBuffer payload = input.slice();
+                payload.limit(length - 1);
+                input.position(input.position() + length - 1);
+                handler.onFrame(this, type, payload);
+            }
+            input.compact();
+        }
+        return read >= 0;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to do with this peer
+        }
+    }
+}
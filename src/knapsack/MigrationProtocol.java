@@ -0,0 +1,80 @@
+package knapsack;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary protocol spoken between an IslandCoordinator and its IslandWorkers.
+ * Every frame is an int length (counting the type byte and the payload), a type byte and
+ * the payload. Genomes travel bit-packed, as their fitness, word count and long words.
+ */
+final class MigrationProtocol {
+    // worker -> coordinator: int numberOfItems, int dimensions
+    static final byte HELLO = 1;
+    // both ways: a genome to insert in an island
+    static final byte MIGRANT = 2;
+    // worker -> coordinator: the best genome of the worker so far
+    static final byte BEST = 3;
+    // coordinator -> worker: end of the run, no payload
+    static final byte STOP = 4;
+
+    static final int MAX_FRAME = 1 << 26;
+
+    private MigrationProtocol() {
+    }
+
+    static ByteBuffer hello(KnapsackProblem problem) {
+        ByteBuffer frame = frame(HELLO, 8);
+        frame.putInt(problem.getNumberOfItems()).putInt(problem.getDimensions());
+        return frame.flip();
+    }
+
+    static ByteBuffer stop() {
+        return frame(STOP, 0).flip();
+    }
+
+    static ByteBuffer genome(byte type, KnapsackSolution solution) {
+        long[] words = solution.getWords();
+        ByteBuffer frame = frame(type, 8 + 8 * words.length);
+        frame.putInt(solution.fitness()).putInt(words.length);
+        frame.asLongBuffer().put(words);
+        frame.position(frame.position() + 8 * words.length);
+        return frame.flip();
+    }
+
+    static KnapsackSolution readGenome(ByteBuffer payload, KnapsackProblem problem) {
+        payload.getInt(); // fitness, recomputed locally
+        int length = payload.getInt();
+        KnapsackSolution solution = new KnapsackSolution(problem);
+        long[] words = solution.getWords();
+        if (length != words.length || payload.remaining() < 8 * length) {
+            throw new IllegalArgumentException("Genome of " + length + " words, expected " + words.length);
+        }
+        payload.asLongBuffer().get(words);
+        // The bits past the last item must stay zero, or they would reach past the problem's arrays.
+        int items = problem.getNumberOfItems();
+        if ((items & 63) != 0 && (words[words.length - 1] & (-1L << items)) != 0) {
+            throw new IllegalArgumentException("Genome selects items past " + items);
+        }
+        solution.invalidate();
+        return solution;
+    }
+
+    static int genomeFitness(ByteBuffer payload) {
+        return payload.getInt(payload.position());
+    }
+
+    /**
+     * Returns a copy of a received frame, ready to be sent again.
+     */
+    static ByteBuffer copy(byte type, ByteBuffer payload) {
+        ByteBuffer frame = frame(type, payload.remaining());
+        frame.put(payload.duplicate());
+        return frame.flip();
+    }
+
+    private static ByteBuffer frame(byte type, int payloadBytes) {
+        ByteBuffer frame = ByteBuffer.allocate(5 + payloadBytes);
+        frame.putInt(1 + payloadBytes).put(type);
+        return frame;
+    }
+}
@@ -1,37 +1,257 @@
 package knapsack;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.TreeSet;
 
+/**
+ * Population of knapsack solutions indexed by two binary heaps over their cached fitness,
+ * so the best and the worst individuals are found in O(1) and replaced in O(log n).
+ * A solution modified in place through get(i) must be reported with update(i).
+ */
 public class Population {
     private List<KnapsackSolution> solutions;
     private KnapsackProblem problem;
+    private int[] keys;
+    private long[] fingerprints;
+    private FingerprintSet distinct;
+    private IndexedHeap worst;
+    private IndexedHeap best;
+    private int[] elites = new int[0];
 
     public Population(KnapsackProblem problem) {
         this.problem = problem;
         this.solutions = new ArrayList<>();
+        this.keys = new int[16];
+        this.fingerprints = new long[16];
+        this.distinct = new FingerprintSet(16);
+        this.worst = new IndexedHeap(false);
+        this.best = new IndexedHeap(true);
     }
 
     public void add(KnapsackSolution solution) {
+        int index = solutions.size();
+        if (index == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * index);
+            fingerprints = Arrays.copyOf(fingerprints, 2 * index);
+        }
         solutions.add(solution);
+        keys[index] = solution.fitness();
+        fingerprints[index] = solution.fingerprint();
+        distinct.add(fingerprints[index]);
+        worst.push(index);
+        best.push(index);
     }
 
     public KnapsackSolution getBest() {
-        return solutions.stream().max(Comparator.comparingInt(KnapsackSolution::fitness)).orElse(null);
+        return solutions.isEmpty() ? null : solutions.get(best.peek());
+    }
+
+    public KnapsackSolution getWorst() {
+        return solutions.isEmpty() ? null : solutions.get(worst.peek());
     }
 
     public void mutate(int index) {
         solutions.get(index).mutate();
+        update(index);
+    }
+
+    public void repair(int index) {
+        solutions.get(index).repair();
+        update(index);
+    }
+
+    /**
+     * Re-reads the fitness of the solution at index after it was modified in place.
+     */
+    public void update(int index) {
+        KnapsackSolution solution = solutions.get(index);
+        keys[index] = solution.fitness();
+        distinct.remove(fingerprints[index]);
+        fingerprints[index] = solution.fingerprint();
+        distinct.add(fingerprints[index]);
+        worst.fix(index);
+        best.fix(index);
+    }
+
+    /**
+     * Re-reads the fitness of every individual after they were all modified in place, in O(n).
+     */
+    public void rebuild() {
+        distinct.clear();
+        for (int i = 0; i < solutions.size(); i++) {
+            keys[i] = solutions.get(i).fitness();
+            fingerprints[i] = solutions.get(i).fingerprint();
+            distinct.add(fingerprints[i]);
+        }
+        worst.heapify();
+        best.heapify();
+    }
+
+    public long getFingerprint(int index) {
+        return fingerprints[index];
+    }
+
+    /**
+     * Returns true when individuals i and j have the same genome: O(1) when their
+     * fingerprints differ, which is the common case.
+     */
+    public boolean sameGenome(int i, int j) {
+        return i == j || (fingerprints[i] == fingerprints[j] && solutions.get(i).equals(solutions.get(j)));
+    }
+
+    /**
+     * Returns true when the population holds an individual with the same fingerprint.
+     */
+    public boolean contains(KnapsackSolution solution) {
+        return distinct.count(solution.fingerprint()) > 0;
+    }
+
+    /**
+     * Returns the number of distinct genomes, as far as fingerprints can tell.
+     */
+    public int distinctCount() {
+        return distinct.distinct();
+    }
+
+    public int getWorstIndex() {
+        return worst.peek();
+    }
+
+    public int getFitness(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Copies a solution over the individual at index, reusing that individual's storage.
+     */
+    public void overwrite(int index, KnapsackSolution solution) {
+        solutions.get(index).copyFrom(solution);
+        update(index);
+    }
+
+    public void set(int index, KnapsackSolution solution) {
+        solutions.set(index, solution);
+        update(index);
     }
 
     public void replace(KnapsackSolution solution) {
-        KnapsackSolution worstSolution = solutions.stream().min(Comparator.comparingInt(KnapsackSolution::fitness)).orElse(null);
-        if (worstSolution != null) {
-            solutions.remove(worstSolution);
-            solutions.add(solution);
+        if (!solutions.isEmpty()) {
+            set(worst.peek(), solution);
+        }
+    }
+
+    /**
+     * Replaces the worst individual by the given solution if the latter is strictly fitter.
+     */
+    public boolean replaceIfFitter(KnapsackSolution solution) {
+        if (solutions.isEmpty() || solution.fitness() <= keys[worst.peek()]) {
+            return false;
+        }
+        set(worst.peek(), solution);
+        return true;
+    }
+
+    /**
+     * Replaces the worst individuals by the k best individuals of source, as long as they
+     * are strictly fitter. The elites are picked with a bounded heap in O(P log k).
+     */
+    public void mergeElites(Population source, int k) {
+        int count = source.eliteIndices(k);
+        for (int e = 0; e < count; e++) {
+            replaceIfFitter(source.get(source.elites[e]));
+        }
+    }
+
+    /**
+     * Same as mergeElites, but the elites are copied over the storage of the individuals
+     * they replace instead of being shared between the two populations.
+     */
+    public void copyElites(Population source, int k) {
+        int count = source.eliteIndices(k);
+        for (int e = 0; e < count; e++) {
+            KnapsackSolution elite = source.get(source.elites[e]);
+            int index = worst.peek();
+            if (elite.fitness() > keys[index]) {
+                overwrite(index, elite);
+            }
+        }
+    }
+
+    /**
+     * Runs a local search on each of the k best individuals, in place.
+     */
+    public void improveElites(int k, LocalSearch localSearch) {
+        int count = eliteIndices(k);
+        for (int e = 0; e < count; e++) {
+            localSearch.improve(solutions.get(elites[e]));
+            update(elites[e]);
+        }
+    }
+
+    /**
+     * Returns the k best individuals, in no particular order.
+     */
+    public List<KnapsackSolution> getElites(int k) {
+        int count = eliteIndices(k);
+        List<KnapsackSolution> result = new ArrayList<>(count);
+        for (int e = 0; e < count; e++) {
+            result.add(solutions.get(elites[e]));
+        }
+        return result;
+    }
+
+    // Puts the indices of the k best individuals in the elites scratch array and returns how many there are.
+    private int eliteIndices(int k) {
+        k = Math.max(0, Math.min(k, size()));
+        if (elites.length < k) {
+            elites = new int[k];
         }
+
+        // Min-heap of the k best indices seen so far, keyed on keys.
+        int count = 0;
+        for (int i = 0; i < size() && k > 0; i++) {
+            if (count < k) {
+                elites[count] = i;
+                siftUp(elites, count++);
+            } else if (keys[i] > keys[elites[0]]) {
+                elites[0] = i;
+                siftDown(elites, 0, count);
+            }
+        }
+        return count;
+    }
+
+    private void siftUp(int[] heap, int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[index]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private void siftDown(int[] heap, int position, int size) {
+        int index = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[index] <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
     }
 
     public List<KnapsackSolution> getSolutions() {
@@ -41,4 +261,95 @@ public class Population {
     public KnapsackSolution get(int i) {
         return solutions.get(i);
     }
+
+    public int size() {
+        return solutions.size();
+    }
+
+    /**
+     * Binary heap of solution indices ordered on keys, with the position of every index
+     * tracked so that an arbitrary entry can be re-sifted after its key changed.
+     */
+    private class IndexedHeap {
+        private final boolean max;
+        private int[] heap = new int[16];
+        private int[] positions = new int[16];
+        private int size;
+
+        IndexedHeap(boolean max) {
+            this.max = max;
+        }
+
+        private boolean above(int a, int b) {
+            return max ? keys[a] > keys[b] : keys[a] < keys[b];
+        }
+
+        int peek() {
+            return heap[0];
+        }
+
+        void push(int index) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, 2 * size);
+            }
+            if (index >= positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(2 * positions.length, index + 1));
+            }
+            heap[size] = index;
+            positions[index] = size;
+            up(size++);
+        }
+
+        void heapify() {
+            for (int position = size / 2 - 1; position >= 0; position--) {
+                down(position);
+            }
+        }
+
+        void fix(int index) {
+            int position = positions[index];
+            if (position > 0 && above(index, heap[(position - 1) >>> 1])) {
+                up(position);
+            } else {
+                down(position);
+            }
+        }
+
+        private void up(int position) {
+            int index = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!above(index, heap[parent])) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(index, position);
+        }
+
+        private void down(int position) {
+            int index = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && above(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!above(heap[child], index)) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(index, position);
+        }
+
+        private void move(int index, int position) {
+            heap[position] = index;
+            positions[index] = position;
+        }
+    }
 }
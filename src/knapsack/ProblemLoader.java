@@ -0,0 +1,192 @@
+package knapsack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes knapsack instances straight from memory-mapped files into the flat
+ * primitive arrays of KnapsackProblem, without building any intermediate string or list.
+ *
+ * Two formats are supported:
+ * <ul>
+ *     <li>the OR-Library mknap / Chu-Beasley mknapcb text format: the number of instances,
+ *     then for each one "n m optimum", the n utilities, m rows of n costs and the m budgets;</li>
+ *     <li>a compact little-endian binary format: magic, version, n, m, the n utilities,
+ *     the n * m costs in item-major order and the m budgets, all as 32-bit ints.</li>
+ * </ul>
+ */
+public class ProblemLoader {
+    private static final int MAGIC = 0x4B4E4150; // "KNAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 4;
+
+    /**
+     * Reads the first instance of a file in either format, recognising the binary one by its magic number.
+     */
+    public static KnapsackProblem read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.position() == 4 && header.getInt(0) == MAGIC) {
+                return readBinary(path);
+            }
+        }
+        return readOrLibrary(path).get(0);
+    }
+
+    public static List<KnapsackProblem> readOrLibrary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Scanner scanner = new Scanner(map(channel, FileChannel.MapMode.READ_ONLY, channel.size()));
+            int count = scanner.nextInt();
+            if (count < 0) {
+                throw new IOException("Negative instance count in " + path);
+            }
+            List<KnapsackProblem> problems = new ArrayList<>(Math.min(count, 64));
+
+            for (int p = 0; p < count; p++) {
+                int n = scanner.nextInt();
+                int m = scanner.nextInt();
+                scanner.nextInt(); // best known value, 0 when unknown
+                // Every number takes at least one byte, which bounds the arrays by the file size.
+                if (n < 0 || m < 0 || (long) n * m + n + m > scanner.remaining()) {
+                    throw new IOException("Invalid instance size " + n + " x " + m + " in " + path);
+                }
+
+                int[] utilities = new int[n];
+                for (int i = 0; i < n; i++) {
+                    utilities[i] = scanner.nextInt();
+                }
+                // The file lists the costs constraint by constraint, the matrix is item-major.
+                int[] costs = new int[n * m];
+                for (int j = 0; j < m; j++) {
+                    for (int i = 0, k = j; i < n; i++, k += m) {
+                        costs[k] = scanner.nextInt();
+                    }
+                }
+                int[] budgets = new int[m];
+                for (int j = 0; j < m; j++) {
+                    budgets[j] = scanner.nextInt();
+                }
+                problems.add(new KnapsackProblem(n, utilities, costs, budgets));
+            }
+            return problems;
+        }
+    }
+
+    public static KnapsackProblem readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            IntBuffer buffer = map(channel, FileChannel.MapMode.READ_ONLY, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (buffer.remaining() < HEADER_INTS || buffer.get() != MAGIC) {
+                throw new IOException(path + " is not a binary knapsack instance");
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary knapsack version " + version + " in " + path);
+            }
+            int n = buffer.get();
+            int m = buffer.get();
+            if (n < 0 || m < 0) {
+                throw new IOException("Invalid instance size " + n + " x " + m + " in " + path);
+            }
+            if ((long) buffer.remaining() != (long) n + (long) n * m + m) {
+                throw new IOException("Truncated binary knapsack instance " + path);
+            }
+
+            int[] utilities = new int[n];
+            int[] costs = new int[n * m];
+            int[] budgets = new int[m];
+            buffer.get(utilities).get(costs).get(budgets);
+            return new KnapsackProblem(n, utilities, costs, budgets);
+        }
+    }
+
+    public static void writeBinary(KnapsackProblem problem, Path path) throws IOException {
+        int n = problem.getNumberOfItems();
+        int m = problem.getDimensions();
+        long size = 4L * (HEADER_INTS + n + (long) n * m + m);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = map(channel, FileChannel.MapMode.READ_WRITE, size);
+            IntBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            buffer.put(MAGIC).put(VERSION).put(n).put(m);
+            buffer.put(problem.getUtilities()).put(problem.getCostMatrix()).put(problem.getBudgets());
+            mapped.force();
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Instance files larger than 2 GB are not supported");
+        }
+        return channel.map(mode, 0, size);
+    }
+
+    /**
+     * Minimal tokenizer over the mapped bytes: numbers are separated by anything that is not
+     * part of a number, and a fractional part (as in "3800.0") is ignored.
+     */
+    private static class Scanner {
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private int position;
+
+        Scanner(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        int nextInt() throws IOException {
+            byte c = skipSeparators();
+            boolean negative = c == '-';
+            if (negative) {
+                position++;
+            }
+
+            long value = 0;
+            int digits = 0;
+            while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9') {
+                value = 10 * value + (c - '0');
+                position++;
+                digits++;
+                // Checked at every digit, before a long number could wrap around.
+                if (value > Integer.MAX_VALUE) {
+                    throw new IOException("Number too large at byte " + position);
+                }
+            }
+            if (digits == 0) {
+                throw new IOException("Malformed number at byte " + position);
+            }
+            if (position < limit && buffer.get(position) == '.') {
+                do {
+                    position++;
+                } while (position < limit && (c = buffer.get(position)) >= '0' && c <= '9');
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        int remaining() {
+            return limit - position;
+        }
+
+        private byte skipSeparators() throws IOException {
+            while (position < limit) {
+                byte c = buffer.get(position);
+                if ((c >= '0' && c <= '9') || c == '-') {
+                    return c;
+                }
+                position++;
+            }
+            throw new IOException("Unexpected end of file");
+        }
+    }
+}
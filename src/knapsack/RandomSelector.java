@@ -1,32 +1,136 @@
 package knapsack;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * Fitness-proportional selector backed by a Walker/Vose alias table.
+ * The table is built in O(n) whenever the weights change, after which every draw is O(1).
+ */
 public class RandomSelector {
-    private List<Integer> fitnesses;
-    private Random random;
+    private int[] fitnesses;
+    private int size;
+    private RandomGenerator random;
+
+    private double[] probabilities;
+    private int[] aliases;
+    private int[] worklist;
+    private boolean built;
 
     public RandomSelector() {
-        this.fitnesses = new ArrayList<>();
-        this.random = new Random();
+        this(new SplittableRandom());
+    }
+
+    public RandomSelector(RandomGenerator random) {
+        this.fitnesses = new int[16];
+        this.probabilities = new double[0];
+        this.aliases = new int[0];
+        this.worklist = new int[0];
+        this.random = random;
+    }
+
+    public RandomSelector(int[] fitnesses, int size) {
+        this();
+        reset(fitnesses, size);
     }
 
     public void add(int fitness) {
-        fitnesses.add(fitness);
+        if (size == fitnesses.length) {
+            fitnesses = Arrays.copyOf(fitnesses, 2 * size);
+        }
+        fitnesses[size++] = fitness;
+        built = false;
     }
 
-    public int randomChoice() {
-        int totalFitness = fitnesses.stream().mapToInt(Integer::intValue).sum();
-        int choice = random.nextInt(totalFitness);
-        int sum = 0;
-        for (int i = 0; i < fitnesses.size(); i++) {
-            sum += fitnesses.get(i);
-            if (sum > choice) {
-                return i;
+    /**
+     * Replaces all the weights with the first size entries of fitnesses and rebuilds the table,
+     * reusing the internal arrays when they are large enough.
+     */
+    public void reset(int[] fitnesses, int size) {
+        if (this.fitnesses.length < size) {
+            this.fitnesses = new int[size];
+        }
+        System.arraycopy(fitnesses, 0, this.fitnesses, 0, size);
+        this.size = size;
+        build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void build() {
+        int n = size;
+        if (probabilities.length < n) {
+            probabilities = new double[n];
+            aliases = new int[n];
+            worklist = new int[n];
+        }
+
+        long totalFitness = 0;
+        for (int i = 0; i < n; i++) {
+            totalFitness += fitnesses[i];
+        }
+
+        // Small entries are stacked from the front of the worklist, large ones from the back.
+        int small = 0;
+        int large = n;
+        for (int i = 0; i < n; i++) {
+            probabilities[i] = totalFitness == 0 ? 1.0 : (double) fitnesses[i] * n / totalFitness;
+            aliases[i] = i;
+            if (probabilities[i] < 1.0) {
+                worklist[small++] = i;
+            } else {
+                worklist[--large] = i;
             }
         }
-        return fitnesses.size() - 1;
+
+        while (small > 0 && large < n) {
+            int less = worklist[--small];
+            int more = worklist[large];
+            aliases[less] = more;
+            probabilities[more] -= 1.0 - probabilities[less];
+            if (probabilities[more] < 1.0) {
+                large++;
+                worklist[small++] = more;
+            }
+        }
+        // Whatever is left only differs from 1 by rounding errors.
+        while (small > 0) {
+            probabilities[worklist[--small]] = 1.0;
+        }
+        while (large < n) {
+            probabilities[worklist[large++]] = 1.0;
+        }
+
+        built = true;
+    }
+
+    public int randomChoice() {
+        if (!built) {
+            build();
+        }
+        double u = random.nextDouble() * size;
+        int i = (int) u;
+        return u - i < probabilities[i] ? i : aliases[i];
+    }
+
+    /**
+     * Fills choices with independent draws.
+     */
+    public void randomChoices(int[] choices) {
+        randomChoices(choices, 0, choices.length);
+    }
+
+    public void randomChoices(int[] choices, int from, int to) {
+        if (!built) {
+            build();
+        }
+        for (int k = from; k < to; k++) {
+            double u = random.nextDouble() * size;
+            int i = (int) u;
+            choices[k] = u - i < probabilities[i] ? i : aliases[i];
+        }
     }
 }
@@ -0,0 +1,42 @@
+package knapsack;
+
+import java.util.SplittableRandom;
+
+/**
+ * Master source of randomness for a genetic algorithm run. Every stream handed out is
+ * split from one seeded SplittableRandom, so streams are never shared between threads,
+ * never contended, and a run is reproducible from its seed and number of workers.
+ */
+public class RandomSource {
+    private final long seed;
+    private final SplittableRandom master;
+
+    public RandomSource() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public RandomSource(long seed) {
+        this.seed = seed;
+        this.master = new SplittableRandom(seed);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns a new independent stream. Streams are split in call order, which is what
+     * makes a run deterministic: split them from a single thread.
+     */
+    public synchronized SplittableRandom split() {
+        return master.split();
+    }
+
+    public synchronized SplittableRandom[] split(int count) {
+        SplittableRandom[] streams = new SplittableRandom[count];
+        for (int i = 0; i < count; i++) {
+            streams[i] = master.split();
+        }
+        return streams;
+    }
+}
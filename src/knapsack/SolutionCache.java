@@ -0,0 +1,425 @@
+package knapsack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the best solution and the final elites of solved instances, keyed by
+ * KnapsackProblem.contentHash() and checked with sameContent(), so that a repeated instance
+ * is answered without solving and a near-identical one starts from the cached elites.
+ * <p>
+ * Genomes are kept bit-packed, 64 items per long, like KnapsackSolution itself. The memory
+ * tier is an LRU map bounded by maxBytes; with a directory, every entry is also written to
+ * one file per instance, which exact lookups fall back to after a memory miss. The disk
+ * tier is never evicted, and near matches are only searched in memory.
+ * <p>
+ * A near match has the same number of items and dimensions, the largest share of items
+ * with the same utility and costs, at least nearMatchThreshold of them; budgets may differ.
+ * Its elites are repaired against the new instance before being seeded.
+ */
+public class SolutionCache {
+    private static final int MAGIC = 0x4B534F4C; // "KSOL"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 7;
+    // Rough cost of an entry besides its arrays: the entry, map node and array headers.
+    private static final int ENTRY_OVERHEAD = 160;
+
+    public record Hit(KnapsackSolution solution, boolean proven) {
+    }
+
+    public record Stats(long hits, long diskHits, long nearHits, long misses, long diskErrors,
+                        int entries, long bytes) {
+    }
+
+    // The instance arrays are shared with the problem that was put, not copied.
+    private static final class Entry {
+        final long hash;
+        final int numberOfItems;
+        final int[] utilities;
+        final int[] costs;
+        final int[] budgets;
+        long[] best;
+        int bestFitness;
+        boolean proven;
+        // eliteCount genomes of words longs each, back to back.
+        long[] elites;
+        int eliteCount;
+        long bytes;
+        long sequence;
+
+        Entry(long hash, int numberOfItems, int[] utilities, int[] costs, int[] budgets) {
+            this.hash = hash;
+            this.numberOfItems = numberOfItems;
+            this.utilities = utilities;
+            this.costs = costs;
+            this.budgets = budgets;
+        }
+
+        long shape() {
+            return ((long) numberOfItems << 32) | budgets.length;
+        }
+
+        boolean matches(KnapsackProblem problem) {
+            return hash == problem.contentHash() && numberOfItems == problem.getNumberOfItems()
+                    && Arrays.equals(budgets, problem.getBudgets())
+                    && Arrays.equals(utilities, problem.getUtilities())
+                    && Arrays.equals(costs, problem.getCostMatrix());
+        }
+
+        void measure() {
+            bytes = ENTRY_OVERHEAD + 4L * (utilities.length + costs.length + budgets.length)
+                    + 8L * (best.length + elites.length);
+        }
+    }
+
+    private final long maxBytes;
+    private final Path directory;
+    private int eliteCount = 16;
+    private double nearMatchThreshold = 0.9;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Entries grouped by (items, dimensions), the candidates of a near-match search.
+    private final Map<Long, List<Entry>> shapes = new HashMap<>();
+    private long bytes;
+    private long sequence;
+    // The sequence of the entry last written per file; also the lock that serialises the writes.
+    private final Map<Long, Long> stored = new HashMap<>();
+
+    private long hits;
+    private long diskHits;
+    private long nearHits;
+    private long misses;
+    private long diskErrors;
+
+    public SolutionCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * @param directory where entries are also stored, created if missing; null keeps the cache in memory
+     */
+    public SolutionCache(long maxBytes, Path directory) {
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot create cache directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Sets how many of the best individuals put() keeps; 16 by default.
+     */
+    public void setEliteCount(int eliteCount) {
+        this.eliteCount = eliteCount;
+    }
+
+    public int getEliteCount() {
+        return eliteCount;
+    }
+
+    /**
+     * Sets the share of identical items, in [0, 1], a cached instance needs to seed another one; 0.9 by default.
+     */
+    public void setNearMatchThreshold(double nearMatchThreshold) {
+        this.nearMatchThreshold = nearMatchThreshold;
+    }
+
+    /**
+     * Returns a copy of the cached best solution of this exact instance, or null.
+     */
+    public Hit get(KnapsackProblem problem) {
+        Entry entry;
+        boolean fromDisk = false;
+        synchronized (this) {
+            entry = entries.get(problem.contentHash());
+            if (entry != null && !entry.matches(problem)) {
+                entry = null;
+            }
+        }
+        if (entry == null && directory != null) {
+            entry = load(problem);
+            fromDisk = entry != null;
+        }
+        synchronized (this) {
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            if (fromDisk) {
+                diskHits++;
+                Entry current = entries.get(entry.hash);
+                if (current != null && current.matches(problem)) {
+                    entry = current;
+                } else {
+                    insert(entry);
+                }
+            } else {
+                hits++;
+            }
+            return new Hit(decode(problem, entry.best, 0), entry.proven);
+        }
+    }
+
+    /**
+     * Seeds the population of ga with the elites cached for its instance or, failing that,
+     * for the nearest cached instance, each repaired and copied over the current worst individual.
+     * Returns how many individuals were seeded.
+     */
+    public int warmStart(GeneticAlgorithm ga) {
+        KnapsackProblem problem = ga.problem;
+        List<KnapsackSolution> seeds = new ArrayList<>();
+        synchronized (this) {
+            Entry entry = entries.get(problem.contentHash());
+            if (entry == null || !entry.matches(problem)) {
+                entry = nearest(problem);
+                if (entry == null) {
+                    return 0;
+                }
+                nearHits++;
+            }
+            int words = entry.best.length;
+            for (int e = 0; e < entry.eliteCount; e++) {
+                seeds.add(decode(problem, entry.elites, e * words));
+            }
+            seeds.add(decode(problem, entry.best, 0));
+        }
+        // Repairs run outside the lock; the best goes in last so that no later seed overwrites it.
+        for (KnapsackSolution seed : seeds) {
+            seed.repair();
+            ga.seed(seed);
+        }
+        return seeds.size();
+    }
+
+    // Scans the same-shape entries for the one sharing the most items, giving up on a
+    // candidate as soon as it can no longer reach the threshold.
+    private Entry nearest(KnapsackProblem problem) {
+        int n = problem.getNumberOfItems();
+        int d = problem.getDimensions();
+        List<Entry> candidates = shapes.get(((long) n << 32) | d);
+        if (candidates == null) {
+            return null;
+        }
+        int[] utilities = problem.getUtilities();
+        int[] costs = problem.getCostMatrix();
+        int allowed = n - (int) Math.ceil(nearMatchThreshold * n);
+        Entry nearest = null;
+        for (Entry entry : candidates) {
+            int mismatches = 0;
+            for (int i = 0; i < n && mismatches <= allowed; i++) {
+                if (entry.utilities[i] != utilities[i]
+                        || !Arrays.equals(entry.costs, i * d, (i + 1) * d, costs, i * d, (i + 1) * d)) {
+                    mismatches++;
+                }
+            }
+            if (mismatches <= allowed) {
+                nearest = entry;
+                allowed = mismatches - 1;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Caches the best solution of ga's instance together with its current elites.
+     */
+    public void put(GeneticAlgorithm ga, KnapsackSolution best, boolean proven) {
+        put(ga.problem, best, proven, ga.population.getElites(eliteCount));
+    }
+
+    /**
+     * Caches a solution of the instance and the elites to seed it, or a near match, with later on.
+     * A cached solution is only replaced by one at least as fit, and a proven one is only replaced by another proven one.
+     */
+    public void put(KnapsackProblem problem, KnapsackSolution best, boolean proven, Collection<KnapsackSolution> elites) {
+        Entry entry = new Entry(problem.contentHash(), problem.getNumberOfItems(), problem.getUtilities(),
+                problem.getCostMatrix(), problem.getBudgets());
+        int words = best.getWords().length;
+        entry.best = best.getWords().clone();
+        entry.bestFitness = best.fitness();
+        entry.proven = proven;
+        entry.eliteCount = Math.min(eliteCount, elites.size());
+        entry.elites = new long[entry.eliteCount * words];
+        Iterator<KnapsackSolution> it = elites.iterator();
+        for (int e = 0; e < entry.eliteCount; e++) {
+            System.arraycopy(it.next().getWords(), 0, entry.elites, e * words, words);
+        }
+        entry.measure();
+
+        synchronized (this) {
+            Entry current = entries.get(entry.hash);
+            if (current != null && current.matches(problem)
+                    && (current.bestFitness > entry.bestFitness || (current.proven && !proven))) {
+                return;
+            }
+            entry.sequence = ++sequence;
+            insert(entry);
+        }
+        if (directory != null) {
+            store(entry);
+        }
+    }
+
+    // Adds or replaces an entry, then evicts the least recently used ones beyond maxBytes.
+    private void insert(Entry entry) {
+        Entry previous = entries.put(entry.hash, entry);
+        if (previous != null) {
+            unlink(previous);
+        }
+        shapes.computeIfAbsent(entry.shape(), k -> new ArrayList<>()).add(entry);
+        bytes += entry.bytes;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            if (evicted == entry) {
+                break;
+            }
+            eldest.remove();
+            unlink(evicted);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        bytes -= entry.bytes;
+        List<Entry> shape = shapes.get(entry.shape());
+        shape.remove(entry);
+        if (shape.isEmpty()) {
+            shapes.remove(entry.shape());
+        }
+    }
+
+    private static KnapsackSolution decode(KnapsackProblem problem, long[] packed, int offset) {
+        KnapsackSolution solution = new KnapsackSolution(problem);
+        long[] words = solution.getWords();
+        System.arraycopy(packed, offset, words, 0, words.length);
+        solution.invalidate();
+        return solution;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, diskHits, nearHits, misses, diskErrors, entries.size(), bytes);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        shapes.clear();
+        bytes = 0;
+    }
+
+    private Path file(long hash) {
+        return directory.resolve(String.format("%016x.ksol", hash));
+    }
+
+    // Little-endian: header ints (magic, version, items, dimensions, best fitness, proven, elite count),
+    // the instance (utilities, costs, budgets) to tell hash collisions apart, then the genomes.
+    private void store(Entry entry) {
+        // Puts are accepted in sequence order, best last; a write overtaken by a later one is dropped.
+        synchronized (stored) {
+            Long last = stored.get(entry.hash);
+            if (last == null || last < entry.sequence) {
+                write(entry);
+                stored.put(entry.hash, entry.sequence);
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (HEADER_INTS + entry.utilities.length + entry.costs.length
+                + entry.budgets.length) + 8 * (entry.best.length + entry.elites.length)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(entry.numberOfItems).putInt(entry.budgets.length)
+                .putInt(entry.bestFitness).putInt(entry.proven ? 1 : 0).putInt(entry.eliteCount);
+        buffer.asIntBuffer().put(entry.utilities).put(entry.costs).put(entry.budgets);
+        buffer.position(buffer.position() + 4 * (entry.utilities.length + entry.costs.length + entry.budgets.length));
+        buffer.asLongBuffer().put(entry.best).put(entry.elites);
+
+        Path target = file(entry.hash);
+        try {
+            // Written aside then moved, so that a concurrent load never sees half a file.
+            Path temp = Files.createTempFile(directory, "ksol", ".tmp");
+            try {
+                Files.write(temp, buffer.array());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                diskErrors++;
+            }
+        }
+    }
+
+    // Returns the stored entry of this exact instance, or null when there is none or it is unreadable.
+    private Entry load(KnapsackProblem problem) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file(problem.contentHash()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            synchronized (this) {
+                diskErrors++;
+            }
+            return null;
+        }
+
+        int n = problem.getNumberOfItems();
+        int d = problem.getDimensions();
+        int words = (n + 63) >>> 6;
+        int instanceInts = n + n * d + d;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < 4 * (HEADER_INTS + instanceInts) + 8 * words || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION || buffer.getInt() != n || buffer.getInt() != d) {
+            return null;
+        }
+        int bestFitness = buffer.getInt();
+        boolean proven = buffer.getInt() != 0;
+        int count = buffer.getInt();
+        if (count < 0 || bytes.length != 4 * (HEADER_INTS + instanceInts) + 8L * words * (1 + count)) {
+            return null;
+        }
+
+        int[] utilities = new int[n];
+        int[] costs = new int[n * d];
+        int[] budgets = new int[d];
+        buffer.asIntBuffer().get(utilities).get(costs).get(budgets);
+        if (!Arrays.equals(budgets, problem.getBudgets()) || !Arrays.equals(utilities, problem.getUtilities())
+                || !Arrays.equals(costs, problem.getCostMatrix())) {
+            return null;
+        }
+        Entry entry = new Entry(problem.contentHash(), n, problem.getUtilities(), problem.getCostMatrix(),
+                problem.getBudgets());
+        buffer.position(buffer.position() + 4 * instanceInts);
+        entry.best = new long[words];
+        entry.elites = new long[count * words];
+        buffer.asLongBuffer().get(entry.best).get(entry.elites);
+        entry.bestFitness = bestFitness;
+        entry.proven = proven;
+        entry.eliteCount = count;
+        entry.measure();
+        return entry;
+    }
+}
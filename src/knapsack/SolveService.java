@@ -0,0 +1,455 @@
+package knapsack;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ga.CancellationToken;
+import ga.StopPolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves many small instances concurrently, from Java through solve() or over HTTP on the
+ * loopback interface (POST /solve, GET /metrics).
+ * <p>
+ * Each request is handled on its own thread: a virtual thread when the runtime has them,
+ * a cached platform thread otherwise. A request waits for one of concurrency permits,
+ * sized to the cores by default, then its solve runs on a ForkJoinPool of the same size,
+ * so blocked request threads cost nothing and the CPU-bound work never oversubscribes the
+ * cores. At most maxQueued requests may wait for a permit, and a request waits no longer
+ * than its own time limit; past that it is rejected (503 over HTTP) instead of piling up.
+ * <p>
+ * Instances below KnapsackSolver.EXACT_LIMIT items go to branch and bound first, for at most
+ * half of the time left; anything it cannot prove by then, and every larger instance, goes to
+ * the genetic algorithm, which stops at the deadline, on the upper bound or after
+ * STAGNATION_LIMIT generations without improvement.
+ * <p>
+ * With a SolutionCache, a repeated instance is answered from the cache before taking a
+ * permit, a genetic algorithm run starts from the elites of the nearest cached instance,
+ * and every result is cached.
+ * <p>
+ * Request body: {"utilities": [..], "costs": [[..], ..], "budgets": [..]}, plus the
+ * optional "timeLimitMillis", "mutationRate", "elitistRate" and "seed".
+ */
+public class SolveService implements AutoCloseable {
+    private static final int MAX_BODY_BYTES = 16 << 20;
+    private static final long DEFAULT_TIME_LIMIT_MILLIS = 1000;
+    private static final long MAX_TIME_LIMIT_MILLIS = 60_000;
+    private static final int STAGNATION_LIMIT = 100;
+    private static final int POPULATION_PAIRS = 50;
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int ABANDONED = 2;
+
+    /**
+     * Outcome of one solve. queueNanos is the time spent waiting for a permit.
+     */
+    public record Result(KnapsackSolution solution, boolean proven, String solver, int generations,
+                         long evaluations, long queueNanos, long solveNanos) {
+    }
+
+    public record Metrics(long accepted, long rejected, long completed, long failed, long cached, int queued, int running,
+                          int concurrency, int maxQueued, double meanQueueMillis, double meanSolveMillis) {
+    }
+
+    private final int concurrency;
+    private final int maxQueued;
+    private final Semaphore permits;
+    private final ForkJoinPool cpuPool;
+    private final ExecutorService requestExecutor;
+    private HttpServer server;
+    private volatile SolutionCache cache;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cached = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder solveNanos = new LongAdder();
+
+    public SolveService() {
+        this(Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public SolveService(int concurrency, int maxQueued) {
+        this.concurrency = concurrency;
+        this.maxQueued = maxQueued;
+        this.permits = new Semaphore(concurrency);
+        this.cpuPool = new ForkJoinPool(concurrency);
+        this.requestExecutor = requestExecutor();
+    }
+
+    // Virtual threads need Java 21; this tree targets 17, so they are looked up reflectively
+    // and a cached pool of daemon platform threads stands in for them on older runtimes.
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "knapsack-request-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts the HTTP front end on the loopback interface; port 0 picks a free port.
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(requestExecutor);
+        server.start();
+    }
+
+    /**
+     * Sets the cache consulted before and filled after every solve; null, the default, disables it.
+     */
+    public void setCache(SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Solves an instance within timeLimit, counted from the call, queueing included.
+     * Throws RejectedExecutionException when the queue is full or no permit frees up in time.
+     */
+    public Result solve(KnapsackProblem problem, Duration timeLimit, double mutationRate, double elitistRate,
+                        long seed) throws InterruptedException {
+        long arrival = System.nanoTime();
+        long deadline = arrival + timeLimit.toNanos();
+
+        SolutionCache cache = this.cache;
+        SolutionCache.Hit hit = cache == null ? null : cache.get(problem);
+        if (hit != null) {
+            cached.increment();
+            return new Result(hit.solution(), hit.proven(), "cache", 0, 0, 0, System.nanoTime() - arrival);
+        }
+
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new RejectedExecutionException("Solve queue is full");
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                rejected.increment();
+                throw new RejectedExecutionException("No solver became free before the deadline");
+            }
+        }
+
+        accepted.increment();
+        running.incrementAndGet();
+        long started = System.nanoTime();
+        // The permit belongs to the task, not to this thread: it is released when the task
+        // finishes, or here only if the task is cancelled before it starts. Otherwise an
+        // interrupted caller would free a permit while its solve keeps the CPU busy.
+        AtomicInteger state = new AtomicInteger(PENDING);
+        CancellationToken token = new CancellationToken();
+        Future<Result> future = cpuPool.submit(() -> {
+            if (!state.compareAndSet(PENDING, STARTED)) {
+                return null;
+            }
+            try {
+                return run(problem, deadline, mutationRate, elitistRate, seed, cache, token);
+            } finally {
+                release();
+            }
+        });
+        try {
+            Result result = future.get();
+            completed.increment();
+            long finished = System.nanoTime();
+            queueNanos.add(started - arrival);
+            solveNanos.add(finished - started);
+            return new Result(result.solution(), result.proven(), result.solver(), result.generations(),
+                    result.evaluations(), started - arrival, finished - started);
+        } catch (ExecutionException e) {
+            failed.increment();
+            throw new IllegalStateException("Solve failed", e.getCause());
+        } catch (InterruptedException e) {
+            token.cancel();
+            future.cancel(true);
+            if (state.compareAndSet(PENDING, ABANDONED)) {
+                release();
+            }
+            throw e;
+        }
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        permits.release();
+    }
+
+    public Result solve(KnapsackProblem problem, Duration timeLimit) throws InterruptedException {
+        return solve(problem, timeLimit, 0.05, 0.2, System.nanoTime());
+    }
+
+    // Runs on the CPU pool.
+    private Result run(KnapsackProblem problem, long deadline, double mutationRate, double elitistRate, long seed,
+                       SolutionCache cache, CancellationToken token) {
+        KnapsackSolution incumbent = null;
+        if (problem.getNumberOfItems() < KnapsackSolver.EXACT_LIMIT) {
+            BranchAndBound exact = new BranchAndBound(problem);
+            exact.setPool(cpuPool);
+            // Half of the time left, so that the genetic algorithm still has time to improve an unproven incumbent.
+            exact.setTimeLimit(Duration.ofNanos(Math.max(0, deadline - System.nanoTime()) / 2));
+            incumbent = exact.solve();
+            if (exact.isProvenOptimal()) {
+                if (cache != null) {
+                    cache.put(problem, incumbent, true, List.of(incumbent));
+                }
+                return new Result(incumbent, true, "branch-and-bound", 0, 0, 0, 0);
+            }
+        }
+
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, POPULATION_PAIRS, new RandomSource(seed));
+        if (cache != null) {
+            cache.warmStart(ga);
+        }
+        if (incumbent != null) {
+            ga.seed(incumbent);
+        }
+        StopPolicy policy = StopPolicy.defaults(STAGNATION_LIMIT);
+        policy.setDeadline(deadline);
+        policy.setCancellationToken(token);
+        KnapsackSolution best = ga.solve(mutationRate, elitistRate, policy);
+        if (cache != null) {
+            cache.put(ga, best, best.isOptimal());
+        }
+        return new Result(best, best.isOptimal(), "genetic", ga.getGeneration(), ga.getEvaluations(), 0, 0);
+    }
+
+    public Metrics getMetrics() {
+        long done = completed.sum();
+        return new Metrics(accepted.sum(), rejected.sum(), done, failed.sum(), cached.sum(), queued.get(), running.get(),
+                concurrency, maxQueued, done == 0 ? 0 : queueNanos.sum() / 1e6 / done,
+                done == 0 ? 0 : solveNanos.sum() / 1e6 / done);
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Allow", "POST");
+                respond(exchange, 405, error("Use POST"));
+                return;
+            }
+
+            String body = readBody(exchange);
+            if (body == null) {
+                respond(exchange, 413, error("Request body larger than " + MAX_BODY_BYTES + " bytes"));
+                return;
+            }
+
+            KnapsackProblem problem;
+            long millis;
+            double mutationRate;
+            double elitistRate;
+            long seed;
+            try {
+                if (!(Json.parse(body) instanceof Map<?, ?> request)) {
+                    throw new IllegalArgumentException("Expected a JSON object");
+                }
+                problem = toProblem(request);
+                millis = number(request, "timeLimitMillis", DEFAULT_TIME_LIMIT_MILLIS).longValue();
+                if (millis < 0) {
+                    throw new IllegalArgumentException("timeLimitMillis must not be negative");
+                }
+                millis = Math.min(MAX_TIME_LIMIT_MILLIS, millis);
+                mutationRate = rate(request, "mutationRate", 0.05);
+                elitistRate = rate(request, "elitistRate", 0.2);
+                seed = number(request, "seed", System.nanoTime()).longValue();
+            } catch (IllegalArgumentException | ClassCastException e) {
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            }
+
+            try {
+                Result result = solve(problem, Duration.ofMillis(Math.max(1, millis)), mutationRate, elitistRate, seed);
+                respond(exchange, 200, toJson(result));
+            } catch (RejectedExecutionException e) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 503, error(e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, error("Interrupted"));
+            } catch (RuntimeException e) {
+                respond(exchange, 500, error(String.valueOf(e.getCause() != null ? e.getCause() : e)));
+            }
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Metrics m = getMetrics();
+            respond(exchange, 200, "{\"accepted\":" + m.accepted() + ",\"rejected\":" + m.rejected()
+                    + ",\"completed\":" + m.completed() + ",\"failed\":" + m.failed() + ",\"cached\":" + m.cached()
+                    + ",\"queued\":" + m.queued() + ",\"running\":" + m.running()
+                    + ",\"concurrency\":" + m.concurrency() + ",\"maxQueued\":" + m.maxQueued()
+                    + ",\"meanQueueMillis\":" + m.meanQueueMillis() + ",\"meanSolveMillis\":" + m.meanSolveMillis() + "}");
+        }
+    }
+
+    // Returns null when the body is larger than MAX_BODY_BYTES, without buffering it when
+    // Content-Length already says so. The rest of such a body is discarded, up to
+    // MAX_BODY_BYTES more: closing the exchange with unread input resets the connection,
+    // and the client would lose the 413 with it. Beyond that it is cut off anyway.
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        try (InputStream in = exchange.getRequestBody()) {
+            if (length == null || Long.parseLong(length.trim()) <= MAX_BODY_BYTES) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length <= MAX_BODY_BYTES) {
+                    return new String(body, StandardCharsets.UTF_8);
+                }
+            }
+            byte[] scratch = new byte[8192];
+            long discarded = 0;
+            int n;
+            while (discarded < MAX_BODY_BYTES && (n = in.read(scratch)) >= 0) {
+                discarded += n;
+            }
+            return null;
+        }
+    }
+
+    private static KnapsackProblem toProblem(Map<?, ?> request) {
+        int[] utilities = ints(request.get("utilities"), "utilities");
+        int[] budgets = ints(request.get("budgets"), "budgets");
+        if (!(request.get("costs") instanceof List<?> rows) || rows.size() != utilities.length) {
+            throw new IllegalArgumentException("costs must hold one row per item");
+        }
+        int[][] costs = new int[rows.size()][];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = ints(rows.get(i), "costs[" + i + "]");
+            if (costs[i].length != budgets.length) {
+                throw new IllegalArgumentException("costs[" + i + "] must hold one cost per budget");
+            }
+        }
+        if (utilities.length == 0 || budgets.length == 0) {
+            throw new IllegalArgumentException("Empty instance");
+        }
+        return new KnapsackProblem(utilities.length, utilities, costs, budgets);
+    }
+
+    private static int[] ints(Object value, String name) {
+        if (!(value instanceof List<?> list)) {
+            throw new IllegalArgumentException(name + " must be an array");
+        }
+        int[] ints = new int[list.size()];
+        for (int i = 0; i < ints.length; i++) {
+            if (!(list.get(i) instanceof Long number) || number < 0 || number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(name + " must hold non-negative integers");
+            }
+            ints[i] = number.intValue();
+        }
+        return ints;
+    }
+
+    private static double rate(Map<?, ?> request, String key, double defaultValue) {
+        double rate = number(request, key, defaultValue).doubleValue();
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException(key + " must be between 0 and 1");
+        }
+        return rate;
+    }
+
+    private static Number number(Map<?, ?> request, String key, Number defaultValue) {
+        Object value = request.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        return number;
+    }
+
+    private static String toJson(Result result) {
+        KnapsackSolution solution = result.solution();
+        StringBuilder sb = new StringBuilder(64 + 6 * solution.countItems());
+        sb.append("{\"fitness\":").append(solution.fitness())
+                .append(",\"feasible\":").append(solution.isFeasible())
+                .append(",\"proven\":").append(result.proven())
+                .append(",\"solver\":").append(Json.quote(result.solver()))
+                .append(",\"generations\":").append(result.generations())
+                .append(",\"evaluations\":").append(result.evaluations())
+                .append(",\"queueMillis\":").append(result.queueNanos() / 1e6)
+                .append(",\"solveMillis\":").append(result.solveNanos() / 1e6)
+                .append(",\"items\":[");
+        for (int i = solution.nextItem(0), first = 1; i >= 0; i = solution.nextItem(i + 1), first = 0) {
+            if (first == 0) {
+                sb.append(',');
+            }
+            sb.append(i);
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message == null ? "Bad request" : message) + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        requestExecutor.shutdownNow();
+        cpuPool.shutdownNow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SolveService service = new SolveService();
+        service.setCache(new SolutionCache(64L << 20, args.length > 1 ? Path.of(args[1]) : null));
+        service.start(args.length > 0 ? Integer.parseInt(args[0]) : 8080);
+        System.out.println("Solve service listening on http://localhost:" + service.getPort() + "/solve");
+    }
+}
@@ -2,6 +2,9 @@ module TP {
 	exports tp.graphical;
 	exports tp.representation;
 	exports tp.algorithm;
+	exports ga;
 
 	requires java.desktop;
+	requires jdk.jfr;
+	requires jdk.httpserver;
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package sacadoc;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 public class MultidimensionalKnapsack {
 
@@ -52,6 +54,11 @@ public class MultidimensionalKnapsack {
         // Print best solution
         System.out.println("Best solution utility: " + bestSolution.totalUtility);
         System.out.println("Selection: " + Arrays.toString(bestSolution.selection));
+
+        // Same run on the packed population engine
+        Solution packedSolution = geneticAlgorithmPacked(items, budgets, generations, populationSize);
+        System.out.println("Packed engine best utility: " + packedSolution.totalUtility);
+        System.out.println("Selection: " + Arrays.toString(packedSolution.selection));
     }
 
     public static Solution geneticAlgorithm(Item[] items, int[] budgets, int generations, int populationSize) {
@@ -174,7 +181,10 @@ public class MultidimensionalKnapsack {
     }
 
     public static Solution tournamentSelection(Solution[] population, Random random) {
-        int tournamentSize = 3;
+        return tournamentSelection(population, random, 3);
+    }
+
+    public static Solution tournamentSelection(Solution[] population, Random random, int tournamentSize) {
         Solution best = population[random.nextInt(population.length)];
         for (int i = 1; i < tournamentSize; i++) {
             Solution competitor = population[random.nextInt(population.length)];
@@ -200,4 +210,411 @@ public class MultidimensionalKnapsack {
         // Repair the solution after mutation
         repairSolution(solution, new Item[] {new Item(10, new int[] {2, 3}), new Item(5, new int[] {1, 2}), new Item(15, new int[] {4, 1})}, new int[] {5, 4});
     }
-}
\ No newline at end of file
+
+    /*
+     * Packed population engine.
+     *
+     * The whole population is one bit matrix: row r holds the genes of individual r in
+     * words consecutive longs starting at r * words, item i being bit (i & 63) of word
+     * i >>> 6. The utility of row r is utility[r] and its cost in dimension j is
+     * costs[r * d + j]. Two matrices are allocated once and swapped every generation,
+     * so a generation allocates nothing and walks a few contiguous arrays.
+     */
+
+    static class PackedPopulation {
+        final int size;
+        final int words;
+        final int d;
+        final long[] genes;
+        final int[] utility;
+        final int[] costs;
+
+        PackedPopulation(int size, int n, int d) {
+            this.size = size;
+            this.words = (n + 63) >>> 6;
+            this.d = d;
+            this.genes = new long[size * words];
+            this.utility = new int[size];
+            this.costs = new int[size * d];
+        }
+    }
+
+    public static Solution geneticAlgorithmPacked(Item[] items, int[] budgets, int generations, int populationSize) {
+        return geneticAlgorithmPacked(items, budgets, generations, populationSize, new SelectionEngine());
+    }
+
+    public static Solution geneticAlgorithmPacked(Item[] items, int[] budgets, int generations, int populationSize,
+                                                  SelectionEngine selection) {
+        Random random = new Random();
+        int n = items.length;
+        int d = budgets.length;
+
+        // Flatten the items: utility of item i, then its d costs at i * d
+        int[] itemUtility = new int[n];
+        int[] itemCosts = new int[n * d];
+        for (int i = 0; i < n; i++) {
+            itemUtility[i] = items[i].utility;
+            System.arraycopy(items[i].costs, 0, itemCosts, i * d, d);
+        }
+        int[] order = repairOrder(itemUtility);
+
+        PackedPopulation population = new PackedPopulation(populationSize, n, d);
+        PackedPopulation next = new PackedPopulation(populationSize, n, d);
+
+        // Initialize population with random rows
+        for (int r = 0; r < populationSize; r++) {
+            randomRow(population, r, n, random);
+            evaluateRow(population, r, itemUtility, itemCosts);
+            repairRow(population, r, order, itemUtility, itemCosts, budgets);
+        }
+
+        // Both parents of every child, drawn in one batch per generation
+        int[] parents = new int[2 * populationSize];
+
+        long[] bestGenes = new long[population.words];
+        int bestUtility = -1;
+
+        for (int gen = 0; gen <= generations; gen++) {
+            // Keep a copy of the best row, the matrices are overwritten
+            int best = bestRow(population);
+            if (population.utility[best] > bestUtility) {
+                bestUtility = population.utility[best];
+                System.arraycopy(population.genes, best * population.words, bestGenes, 0, population.words);
+            }
+            if (gen == generations) {
+                break;
+            }
+
+            // Breed every row of the next matrix in place
+            selectParents(selection, population.utility, populationSize, parents);
+            for (int r = 0; r < populationSize; r++) {
+                crossoverRows(population, parents[2 * r], parents[2 * r + 1], next, r, random);
+                mutateRow(next, r, n, random);
+                evaluateRow(next, r, itemUtility, itemCosts);
+                repairRow(next, r, order, itemUtility, itemCosts, budgets);
+            }
+
+            PackedPopulation swap = population;
+            population = next;
+            next = swap;
+        }
+
+        // Unpack the best row
+        Solution solution = new Solution(n);
+        for (int i = 0; i < n; i++) {
+            solution.selection[i] = (int) (bestGenes[i >>> 6] >>> i) & 1;
+        }
+        solution.totalUtility = bestUtility;
+        return solution;
+    }
+
+    // Item indices by decreasing utility, computed once instead of sorting the items in every repair
+    public static int[] repairOrder(int[] itemUtility) {
+        Integer[] indices = new Integer[itemUtility.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (a, b) -> Integer.compare(itemUtility[b], itemUtility[a]));
+        int[] order = new int[indices.length];
+        for (int l = 0; l < order.length; l++) {
+            order[l] = indices[l];
+        }
+        return order;
+    }
+
+    public static void randomRow(PackedPopulation population, int row, int n, Random random) {
+        int offset = row * population.words;
+        for (int w = 0; w < population.words; w++) {
+            population.genes[offset + w] = random.nextLong();
+        }
+        // Bits past the last item stay at zero
+        if ((n & 63) != 0) {
+            population.genes[offset + population.words - 1] &= (1L << n) - 1;
+        }
+    }
+
+    public static void evaluateRow(PackedPopulation population, int row, int[] itemUtility, int[] itemCosts) {
+        int d = population.d;
+        int offset = row * population.words;
+        int costOffset = row * d;
+        int utility = 0;
+        Arrays.fill(population.costs, costOffset, costOffset + d, 0);
+
+        // Visit the set bits only
+        for (int w = 0; w < population.words; w++) {
+            long word = population.genes[offset + w];
+            while (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                utility += itemUtility[i];
+                for (int j = 0; j < d; j++) {
+                    population.costs[costOffset + j] += itemCosts[i * d + j];
+                }
+            }
+        }
+        population.utility[row] = utility;
+    }
+
+    // Expects the utility and costs of the row to be up to date and keeps them so
+    public static void repairRow(PackedPopulation population, int row, int[] order,
+                                 int[] itemUtility, int[] itemCosts, int[] budgets) {
+        int d = population.d;
+        int offset = row * population.words;
+        int costOffset = row * d;
+        long[] genes = population.genes;
+        int[] costs = population.costs;
+
+        // Step 1: Drop the least useful items while any budget is exceeded
+        for (int l = order.length - 1; l >= 0 && overBudget(costs, costOffset, budgets); l--) {
+            int i = order[l];
+            long bit = 1L << i;
+            if ((genes[offset + (i >>> 6)] & bit) != 0) {
+                genes[offset + (i >>> 6)] &= ~bit;
+                population.utility[row] -= itemUtility[i];
+                for (int j = 0; j < d; j++) {
+                    costs[costOffset + j] -= itemCosts[i * d + j];
+                }
+            }
+        }
+
+        // Step 2: Add back the most useful items that fit
+        for (int l = 0; l < order.length; l++) {
+            int i = order[l];
+            long bit = 1L << i;
+            if ((genes[offset + (i >>> 6)] & bit) != 0) {
+                continue;
+            }
+            boolean canBeAdded = true;
+            for (int j = 0; j < d; j++) {
+                if (costs[costOffset + j] + itemCosts[i * d + j] > budgets[j]) {
+                    canBeAdded = false;
+                    break;
+                }
+            }
+            if (canBeAdded) {
+                genes[offset + (i >>> 6)] |= bit;
+                population.utility[row] += itemUtility[i];
+                for (int j = 0; j < d; j++) {
+                    costs[costOffset + j] += itemCosts[i * d + j];
+                }
+            }
+        }
+    }
+
+    private static boolean overBudget(int[] costs, int costOffset, int[] budgets) {
+        for (int j = 0; j < budgets.length; j++) {
+            if (costs[costOffset + j] > budgets[j]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int bestRow(PackedPopulation population) {
+        int best = 0;
+        for (int r = 1; r < population.size; r++) {
+            if (population.utility[r] > population.utility[best]) {
+                best = r;
+            }
+        }
+        return best;
+    }
+
+    // Uniform crossover 64 genes at a time: each bit of a random mask picks the parent
+    public static void crossoverRows(PackedPopulation parents, int parent1, int parent2,
+                                     PackedPopulation children, int child, Random random) {
+        int words = parents.words;
+        int offset1 = parent1 * words;
+        int offset2 = parent2 * words;
+        int childOffset = child * words;
+        for (int w = 0; w < words; w++) {
+            long mask = random.nextLong();
+            children.genes[childOffset + w] = (parents.genes[offset1 + w] & mask) | (parents.genes[offset2 + w] & ~mask);
+        }
+    }
+
+    public static void mutateRow(PackedPopulation population, int row, int n, Random random) {
+        int mutationPoint = random.nextInt(n);
+        population.genes[row * population.words + (mutationPoint >>> 6)] ^= 1L << mutationPoint;
+    }
+
+    /*
+     * Selection engine.
+     *
+     * Every strategy fills a whole int[] of parent indices in one call. The array is cut
+     * into chunks of at least MIN_CHUNK draws, which run in parallel with one
+     * SplittableRandom each, so there is no shared Random to contend on. The chunk
+     * streams are split from one seed, so a run is reproducible for a given thread count.
+     */
+
+    enum SelectionStrategy { TOURNAMENT, LINEAR_RANK, TRUNCATION, STOCHASTIC_UNIVERSAL }
+
+    static final int MIN_CHUNK = 1024;
+
+    static class SelectionEngine {
+        SelectionStrategy strategy = SelectionStrategy.TOURNAMENT;
+        // k of the k-tournament
+        int tournamentSize = 3;
+        // Expected number of copies of the best individual under linear rank, in [1, 2]
+        double rankPressure = 1.5;
+        // Fraction of the best individuals kept by truncation
+        double truncation = 0.5;
+        final SplittableRandom[] randoms;
+
+        // Scratch reused from batch to batch
+        long[] keys = new long[0];
+        int[] ranked = new int[0];
+        double[] cumulative = new double[0];
+
+        SelectionEngine() {
+            this(Runtime.getRuntime().availableProcessors(), new SplittableRandom().nextLong());
+        }
+
+        SelectionEngine(int threads, long seed) {
+            SplittableRandom master = new SplittableRandom(seed);
+            randoms = new SplittableRandom[Math.max(1, threads)];
+            for (int t = 0; t < randoms.length; t++) {
+                randoms[t] = master.split();
+            }
+        }
+    }
+
+    public static void selectParents(SelectionEngine engine, int[] utility, int size, int[] parents) {
+        // Shared tables are built once per batch, before the chunks run
+        switch (engine.strategy) {
+            case LINEAR_RANK -> {
+                rankRows(engine, utility, size);
+                // Rank i, from worst to best, has weight (2 - s) + 2 i (s - 1) / (size - 1)
+                double s = engine.rankPressure;
+                double sum = 0;
+                for (int i = 0; i < size; i++) {
+                    sum += (2 - s) + (size > 1 ? 2.0 * i * (s - 1) / (size - 1) : 0);
+                    engine.cumulative[i] = sum;
+                }
+            }
+            case TRUNCATION -> rankRows(engine, utility, size);
+            case STOCHASTIC_UNIVERSAL -> cumulateFitness(engine, utility, size);
+            default -> { }
+        }
+
+        int chunks = Math.min(engine.randoms.length, Math.max(1, parents.length / MIN_CHUNK));
+        // One offset for all the pointers of stochastic universal sampling
+        double offset = engine.randoms[0].nextDouble();
+        IntStream.range(0, chunks).parallel().forEach(t -> {
+            int from = (int) ((long) t * parents.length / chunks);
+            int to = (int) ((long) (t + 1) * parents.length / chunks);
+            SplittableRandom random = engine.randoms[t];
+            switch (engine.strategy) {
+                case TOURNAMENT -> tournamentRows(engine.tournamentSize, utility, size, parents, from, to, random);
+                case LINEAR_RANK -> rankedRows(engine, size, parents, from, to, random);
+                case TRUNCATION -> truncatedRows(engine, size, parents, from, to, random);
+                case STOCHASTIC_UNIVERSAL -> universalRows(engine, size, parents, from, to, offset, random);
+            }
+        });
+    }
+
+    public static void tournamentRows(int tournamentSize, int[] utility, int size, int[] parents,
+                                      int from, int to, SplittableRandom random) {
+        for (int p = from; p < to; p++) {
+            int best = random.nextInt(size);
+            for (int i = 1; i < tournamentSize; i++) {
+                int competitor = random.nextInt(size);
+                if (utility[competitor] > utility[best]) {
+                    best = competitor;
+                }
+            }
+            parents[p] = best;
+        }
+    }
+
+    // Fills engine.ranked with the row indices sorted by increasing utility
+    private static void rankRows(SelectionEngine engine, int[] utility, int size) {
+        if (engine.keys.length < size) {
+            engine.keys = new long[size];
+            engine.ranked = new int[size];
+            engine.cumulative = new double[size];
+        }
+        // Sort (utility, index) pairs packed in a long, no boxing
+        for (int r = 0; r < size; r++) {
+            engine.keys[r] = ((long) utility[r] << 32) | r;
+        }
+        Arrays.sort(engine.keys, 0, size);
+        for (int i = 0; i < size; i++) {
+            engine.ranked[i] = (int) engine.keys[i];
+        }
+    }
+
+    public static void rankedRows(SelectionEngine engine, int size, int[] parents,
+                                  int from, int to, SplittableRandom random) {
+        double total = engine.cumulative[size - 1];
+        for (int p = from; p < to; p++) {
+            parents[p] = engine.ranked[search(engine.cumulative, size, random.nextDouble() * total)];
+        }
+    }
+
+    public static void truncatedRows(SelectionEngine engine, int size, int[] parents,
+                                     int from, int to, SplittableRandom random) {
+        // Uniform among the best ceil(truncation * size) rows
+        int kept = Math.max(1, Math.min(size, (int) Math.ceil(engine.truncation * size)));
+        for (int p = from; p < to; p++) {
+            parents[p] = engine.ranked[size - 1 - random.nextInt(kept)];
+        }
+    }
+
+    private static void cumulateFitness(SelectionEngine engine, int[] utility, int size) {
+        if (engine.cumulative.length < size) {
+            engine.keys = new long[size];
+            engine.ranked = new int[size];
+            engine.cumulative = new double[size];
+        }
+        double sum = 0;
+        for (int r = 0; r < size; r++) {
+            sum += Math.max(0, utility[r]);
+            engine.cumulative[r] = sum;
+        }
+        // All zero: every row is equally likely
+        if (sum == 0) {
+            for (int r = 0; r < size; r++) {
+                engine.cumulative[r] = r + 1;
+            }
+        }
+    }
+
+    public static void universalRows(SelectionEngine engine, int size, int[] parents,
+                                     int from, int to, double offset, SplittableRandom random) {
+        // Pointer p sits at (offset + p) * total / parents.length, equally spaced over the
+        // cumulative fitness; the chunk walks its pointers with a single moving cursor
+        double total = engine.cumulative[size - 1];
+        double step = total / parents.length;
+        int row = search(engine.cumulative, size, (offset + from) * step);
+        for (int p = from; p < to; p++) {
+            double pointer = (offset + p) * step;
+            while (row < size - 1 && engine.cumulative[row] <= pointer) {
+                row++;
+            }
+            parents[p] = row;
+        }
+        // The pointers come out in row order, shuffle the chunk so couples are mixed
+        for (int p = to - 1; p > from; p--) {
+            int q = from + random.nextInt(p - from + 1);
+            int swap = parents[p];
+            parents[p] = parents[q];
+            parents[q] = swap;
+        }
+    }
+
+    // First index whose cumulative weight is above value
+    private static int search(double[] cumulative, int size, double value) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,54 @@
+package tp.algorithm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event committed once per generation of the GeneticAlgorithm,
+ * with the same content as GenerationStats.
+ */
+@Name("tp.Generation")
+@Label("Pentominos GA Generation")
+@Category({"Genetic Algorithm", "Pentominos"})
+@Description("One generation of the pentominos genetic algorithm")
+@StackTrace(false)
+class GenerationEvent extends jdk.jfr.Event {
+	@Label("Generation")
+	int generation;
+
+	@Label("Best Fitness")
+	int bestFitness;
+
+	@Label("Mean Fitness")
+	double meanFitness;
+
+	@Label("Worst Fitness")
+	int worstFitness;
+
+	@Label("Diversity")
+	@Description("Fraction of distinct boards in the population")
+	double diversity;
+
+	@Label("Evaluations")
+	long evaluations;
+
+	@Label("Selection")
+	@Timespan(Timespan.NANOSECONDS)
+	long selectionNanos;
+
+	@Label("Crossover")
+	@Timespan(Timespan.NANOSECONDS)
+	long crossoverNanos;
+
+	@Label("Mutation")
+	@Timespan(Timespan.NANOSECONDS)
+	long mutationNanos;
+
+	@Label("Elitism")
+	@Timespan(Timespan.NANOSECONDS)
+	long elitismNanos;
+}
@@ -0,0 +1,14 @@
+package tp.algorithm;
+
+/**
+ * Receives the statistics of every generation of the GeneticAlgorithm,
+ * on the thread that runs solve, right after the generation is complete.
+ */
+@FunctionalInterface
+public interface GenerationListener {
+	/**
+	 * Called once per generation.
+	 * @param stats, the statistics of the generation that just ended.
+	 */
+	void onGeneration(GenerationStats stats);
+}
@@ -0,0 +1,22 @@
+package tp.algorithm;
+
+/**
+ * Statistics of one generation of the GeneticAlgorithm.
+ * The fitness of a board is its number of filled cells, the diversity is the fraction
+ * of distinct boards in the population and the phase durations are in nanoseconds.
+ *
+ * @param generation, the number of the generation, starting at 1.
+ * @param bestFitness, the fitness of the best individual.
+ * @param meanFitness, the mean fitness of the population.
+ * @param worstFitness, the fitness of the least fit individual.
+ * @param diversity, the fraction of distinct boards in the population.
+ * @param evaluations, the number of children evaluated since the start of solve.
+ * @param selectionNanos, the time spent selecting the parents.
+ * @param crossoverNanos, the time spent breeding the children.
+ * @param mutationNanos, the time spent mutating the children.
+ * @param elitismNanos, the time spent putting the elites back.
+ */
+public record GenerationStats(int generation, int bestFitness, double meanFitness, int worstFitness,
+		double diversity, long evaluations, long selectionNanos, long crossoverNanos,
+		long mutationNanos, long elitismNanos) {
+}
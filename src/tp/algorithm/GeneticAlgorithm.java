@@ -1,5 +1,7 @@
 package tp.algorithm;
 
+import ga.LatestValuePublisher;
+import ga.StopPolicy;
 import tp.representation.Couple;
 import tp.representation.PentominosBoard;
 import tp.representation.Population;
@@ -7,6 +9,13 @@ import tp.representation.Population;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
+
+import jdk.jfr.EventType;
 
 /**
  * This class implements a genetic tp.algorithm to solve a Pentominos problem.
@@ -15,9 +24,18 @@ import java.util.List;
  * was written by David Eck and Julien Lesca
  */
 public class GeneticAlgorithm {
+    /**
+     * Which individual a child takes the place of in the steady-state mode.
+     */
+    public enum Replacement { WORST, TOURNAMENT }
+
+    private static final EventType GENERATION_EVENT = EventType.getEventType(GenerationEvent.class);
+
     public Population population;
     public int populationSize;
     public PentominosBoard board;
+    private long evaluations;
+    private final List<GenerationListener> listeners = new CopyOnWriteArrayList<>();
 
     public GeneticAlgorithm(PentominosBoard game, int k) {
         this.population = new Population(game);
@@ -55,38 +73,177 @@ public class GeneticAlgorithm {
         Population res = new Population(this.board);
 
         for (int i = 0; i < populationSize / 2; i++) {
-            PentominosBoard child1 = new PentominosBoard();
-            PentominosBoard child2 = new PentominosBoard();
-
-            for (Integer piece : List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12)) {
-                if (Math.random() < 0.5) {
-                    child1.putPiece(parents.get(i).father.orientation(piece), parents.get(i).father.position(piece));
-                    child2.putPiece(parents.get(i).mother.orientation(piece), parents.get(i).mother.position(piece));
-                } else {
-                    child1.putPiece(parents.get(i).mother.orientation(piece), parents.get(i).mother.position(piece));
-                    child2.putPiece(parents.get(i).father.orientation(piece), parents.get(i).father.position(piece));
-                }
-            }
-
-            res.add(child1);
-            res.add(child2);
+            PentominosBoard[] children = crossover(parents.get(i));
+            res.add(children[0]);
+            res.add(children[1]);
         }
 
         return res;
     }
 
+    /**
+     * Uniform crossover of a couple: each piece of a child is taken
+     * from one parent, and the same piece of the other child from the other parent.
+     * @param couple, the parents.
+     * @return the two children.
+     */
+    private PentominosBoard[] crossover(Couple couple) {
+        PentominosBoard child1 = new PentominosBoard();
+        PentominosBoard child2 = new PentominosBoard();
+
+        for (Integer piece : List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12)) {
+            if (Math.random() < 0.5) {
+                child1.putPiece(couple.father.orientation(piece), couple.father.position(piece));
+                child2.putPiece(couple.mother.orientation(piece), couple.mother.position(piece));
+            } else {
+                child1.putPiece(couple.mother.orientation(piece), couple.mother.position(piece));
+                child2.putPiece(couple.father.orientation(piece), couple.father.position(piece));
+            }
+        }
+
+        return new PentominosBoard[]{child1, child2};
+    }
+
+    /**
+     * Registers a listener notified at the end of every generation of solve.
+     * The phases of a generation are only timed while there is a listener
+     * or while the tp.Generation Flight Recorder event is enabled.
+     * @param listener, the listener to add.
+     */
+    public void addListener(GenerationListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with addListener.
+     * @param listener, the listener to remove.
+     */
+    public void removeListener(GenerationListener listener) {
+        this.listeners.remove(listener);
+    }
+
     public PentominosBoard solve(double mutationRate, double elitistRate) {
+        return solve(mutationRate, elitistRate, StopPolicy.defaults(0));
+    }
+
+    /**
+     * Runs generations until a board is perfect or the policy says stop. When the deadline
+     * passes or the token is cancelled in the middle of a generation, that generation is
+     * dropped and the population stays as it was after the previous one.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @param policy, when to stop.
+     * @return the best individual found.
+     */
+    public PentominosBoard solve(double mutationRate, double elitistRate, StopPolicy policy) {
+        return solve(mutationRate, elitistRate, policy, () -> false, (best, generation) -> { });
+    }
+
+    /**
+     * Runs solve on a new daemon thread and returns at once. The publisher signals an
+     * Incumbent every time the best fitness improves, starting with the initial best,
+     * and completes when the run ends. A slow subscriber only receives the latest
+     * incumbent, and the run stops at the end of the current generation once every
+     * subscriber has cancelled.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @return the publisher of the incumbents.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate) {
+        return solveAsync(mutationRate, elitistRate, StopPolicy.defaults(0));
+    }
+
+    /**
+     * Same as solveAsync, stopping according to a policy.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @param policy, when to stop.
+     * @return the publisher of the incumbents.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, StopPolicy policy) {
+        return solveAsync(mutationRate, elitistRate, policy, task -> {
+            Thread thread = new Thread(task, "pentominos-solve");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Same as solveAsync, with the run submitted to an executor.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @param runner, the executor running the generations.
+     * @return the publisher of the incumbents.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, Executor runner) {
+        return solveAsync(mutationRate, elitistRate, StopPolicy.defaults(0), runner);
+    }
+
+    /**
+     * Same as solveAsync, stopping according to a policy, with the run submitted to an executor.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @param policy, when to stop.
+     * @param runner, the executor running the generations.
+     * @return the publisher of the incumbents.
+     */
+    public Flow.Publisher<Incumbent> solveAsync(double mutationRate, double elitistRate, StopPolicy policy,
+            Executor runner) {
+        LatestValuePublisher<Incumbent> publisher = new LatestValuePublisher<>();
+        runner.execute(() -> {
+            try {
+                solve(mutationRate, elitistRate, policy, publisher::isCancelled,
+                        (best, generation) -> publisher.submit(new Incumbent(generation, best.nbrFilledPlaces(), best)));
+                publisher.close();
+            } catch (Throwable e) {
+                publisher.closeExceptionally(e);
+            }
+        });
+        return publisher;
+    }
+
+    /**
+     * The generation loop of solve.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param elitistRate, the fraction of the best individuals kept from one generation to the next.
+     * @param policy, when to stop.
+     * @param stop, polled once per generation, the run ends when it returns true.
+     * @param improved, given the best board and the generation at the start and at every improvement.
+     * @return the best individual found.
+     */
+    private PentominosBoard solve(double mutationRate, double elitistRate, StopPolicy policy, BooleanSupplier stop,
+            ObjIntConsumer<PentominosBoard> improved) {
         int cpt = 0;
+        this.evaluations = 0;
+        int bestFitness = this.population.getBest().nbrFilledPlaces();
+        policy.start(bestFitness);
+        improved.accept(this.population.getBest(), cpt);
+
+        while (!(this.population.getBest().nbrFilledPlaces() == 64 || stop.getAsBoolean() || policy.interrupted())) {
+            boolean instrumented = !this.listeners.isEmpty() || GENERATION_EVENT.isEnabled();
+            long start = instrumented ? System.nanoTime() : 0;
 
-        while (!(this.population.getBest().nbrFilledPlaces() == 64 || cpt > 1000)) {
             ArrayList<Couple> parents = selection();
+            long selected = instrumented ? System.nanoTime() : 0;
+            if (policy.interrupted()) {
+                break;
+            }
+
             Population newPopulation = crossover(parents);
+            long bred = instrumented ? System.nanoTime() : 0;
+            if (policy.interrupted()) {
+                break;
+            }
 
             for (int i = 0; i < this.populationSize; i++) {
                 if (Math.random() < mutationRate) {
                     newPopulation.mutation(i);
                 }
             }
+            long mutated = instrumented ? System.nanoTime() : 0;
+            if (policy.interrupted()) {
+                break;
+            }
 
             Iterator<PentominosBoard> it = population.iterator();
             int elite = 0;
@@ -98,8 +255,126 @@ public class GeneticAlgorithm {
             this.population = newPopulation;
 
             cpt++;
+            this.evaluations += this.populationSize;
+            if (instrumented) {
+                report(cpt, selected - start, bred - selected, mutated - bred, System.nanoTime() - mutated);
+            }
+
+            int fitness = this.population.getBest().nbrFilledPlaces();
+            if (fitness > bestFitness) {
+                bestFitness = fitness;
+                improved.accept(this.population.getBest(), cpt);
+            }
+            if (policy.shouldStop(cpt, this.evaluations, fitness)) {
+                break;
+            }
         }
 
         return this.population.getBest();
     }
+
+    /**
+     * Notifies the listeners and commits the Flight Recorder event of a generation.
+     * @param generation, the number of the generation.
+     * @param selectionNanos, the time spent in selection.
+     * @param crossoverNanos, the time spent in crossover.
+     * @param mutationNanos, the time spent in mutation.
+     * @param elitismNanos, the time spent putting the elites back.
+     */
+    private void report(int generation, long selectionNanos, long crossoverNanos, long mutationNanos, long elitismNanos) {
+        int size = this.population.size();
+        long sum = 0;
+        int best = 0;
+        int worst = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int fitness = this.population.fitness(i);
+            sum += fitness;
+            best = Math.max(best, fitness);
+            worst = Math.min(worst, fitness);
+        }
+        GenerationStats stats = new GenerationStats(generation, best, (double) sum / size, worst,
+                (double) this.population.distinctCount() / size, this.evaluations,
+                selectionNanos, crossoverNanos, mutationNanos, elitismNanos);
+
+        for (GenerationListener listener : this.listeners) {
+            listener.onGeneration(stats);
+        }
+
+        GenerationEvent event = new GenerationEvent();
+        if (event.shouldCommit()) {
+            event.generation = stats.generation();
+            event.bestFitness = stats.bestFitness();
+            event.meanFitness = stats.meanFitness();
+            event.worstFitness = stats.worstFitness();
+            event.diversity = stats.diversity();
+            event.evaluations = stats.evaluations();
+            event.selectionNanos = stats.selectionNanos();
+            event.crossoverNanos = stats.crossoverNanos();
+            event.mutationNanos = stats.mutationNanos();
+            event.elitismNanos = stats.elitismNanos();
+            event.commit();
+        }
+    }
+
+    /**
+     * Steady-state variant of solve. Instead of building a whole new population
+     * each generation, each step picks two parents by binary tournament, breeds two
+     * children, mutates each with probability mutationRate and then puts each of them in place of the worst individual (or of the loser
+     * of a binary tournament) when it is at least as fit. There are no generations in
+     * this mode, so the listeners are not notified.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param maxEvaluations, the number of children evaluated before giving up.
+     * @param replacement, which individual a child replaces.
+     * @return the best individual found.
+     */
+    public PentominosBoard solveSteadyState(double mutationRate, long maxEvaluations, Replacement replacement) {
+        this.evaluations = 0;
+
+        while (this.population.getBest().nbrFilledPlaces() != 64 && this.evaluations < maxEvaluations) {
+            Couple couple = new Couple(this.population.get(tournament(true)), this.population.get(tournament(true)));
+
+            for (PentominosBoard child : crossover(couple)) {
+                if (Math.random() < mutationRate) {
+                    child = Population.mutate(child);
+                }
+                int index = replacement == Replacement.WORST ? this.population.indexOfWorst() : tournament(false);
+                if (child.nbrFilledPlaces() >= this.population.fitness(index)) {
+                    this.population.set(index, child);
+                }
+                this.evaluations++;
+            }
+        }
+
+        return this.population.getBest();
+    }
+
+    /**
+     * Steady-state variant of solve which replaces the worst individual.
+     * @param mutationRate, the probability that a child is mutated.
+     * @param maxEvaluations, the number of children evaluated before giving up.
+     * @return the best individual found.
+     */
+    public PentominosBoard solveSteadyState(double mutationRate, long maxEvaluations) {
+        return solveSteadyState(mutationRate, maxEvaluations, Replacement.WORST);
+    }
+
+    /**
+     * Returns the number of children evaluated by the last run of solve or solveSteadyState.
+     * @return the number of evaluations.
+     */
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * Binary tournament.
+     * @param best, true to return the fitter individual, false to return the less fit one.
+     * @return the index of the fitter (or less fit) of two random individuals.
+     */
+    private int tournament(boolean best) {
+        int a = (int) (this.population.size() * Math.random());
+        int b = (int) (this.population.size() * Math.random());
+        boolean aWins = this.population.fitness(a) >= this.population.fitness(b);
+        return aWins == best ? a : b;
+    }
 }
@@ -0,0 +1,29 @@
+package tp.algorithm;
+
+import tp.representation.PentominosBoard;
+
+/**
+ * Best board found so far by an asynchronous run of the GeneticAlgorithm.
+ * The board is copied in and out, so an Incumbent never changes.
+ *
+ * @param generation, the generation at which the board was found.
+ * @param fitness, the number of filled cells of the board.
+ * @param board, the board.
+ */
+public record Incumbent(int generation, int fitness, PentominosBoard board) {
+	/**
+	 * Builds an Incumbent from a copy of the board.
+	 */
+	public Incumbent {
+		board = board.copy();
+	}
+
+	/**
+	 * Provides a copy of the board.
+	 * @return a copy of the board.
+	 */
+	@Override
+	public PentominosBoard board() {
+		return board.copy();
+	}
+}
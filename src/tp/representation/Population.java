@@ -1,5 +1,6 @@
 package tp.representation;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -34,7 +35,7 @@ public class Population {
 	 * @param board, the PentominosBoard to be added.
 	 */
 	public void add(PentominosBoard board) {
-		if(this.orderedPopulation.contains(board)) {
+		if(this.indexOfPositions(board, -1) != -1) {
 			PentominosBoard copy = this.originalBoard.copy();
 			while(copy.nbrPlaced < 12) {
 				copy.putPiece((int)(63 * Math.random()), (int)(8 * Math.random()), (int)(8 * Math.random()));
@@ -81,21 +82,104 @@ public class Population {
 	 * @param newBoard the board to be added to the population.
 	 */
 	public void replace(PentominosBoard newBoard) {
-		PentominosBoard oldBoard = this.orderedPopulation.first();
-		this.orderedPopulation.remove(oldBoard);
+		PentominosBoard oldBoard = this.population.get(this.indexOfWorst());
+		this.orderedPopulation.removeIf(b -> b == oldBoard);
 		this.population.remove(oldBoard);
 		this.add(newBoard);
 	}
 	
+	/**
+	 * Replaces the individual at a given index by a given individual.
+	 * As with add, the population never holds two boards with the same positions:
+	 * if another individual already has the positions of newBoard, nothing changes.
+	 * @param index, the index of the individual to be replaced.
+	 * @param newBoard, the board to be put in the population.
+	 * @return true if the individual was replaced, false if newBoard is a duplicate.
+	 */
+	public boolean set(int index, PentominosBoard newBoard) {
+		return this.store(index, newBoard.copy());
+	}
+	
+	// Puts board at index in both the list and the ordered set, unless another individual
+	// already has the same positions.
+	private boolean store(int index, PentominosBoard board) {
+		if(this.indexOfPositions(board, index) != -1) {
+			return false;
+		}
+		PentominosBoard oldBoard = this.population.get(index);
+		this.orderedPopulation.removeIf(b -> b == oldBoard);
+		this.population.set(index, board);
+		this.orderedPopulation.add(board);
+		return true;
+	}
+	
+	// Duplicates are looked up in the list rather than in the ordered set: compareTo
+	// returns 0 for boards with the same positions, but such boards may still differ by
+	// their holes and hence by their fitness, so the set is not reliably ordered and
+	// only serves as the iteration order. Removals from the set go by identity for the same reason.
+	private int indexOfPositions(PentominosBoard board, int except) {
+		for(int i = 0; i < this.population.size(); i++) {
+			if(i != except && this.population.get(i).samePositions(board)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Provides the index of the least fit individual of the population.
+	 * @return the index of the least fit individual.
+	 */
+	public int indexOfWorst() {
+		int worst = 0;
+		for(int i = 1; i < this.population.size(); i++) {
+			if(this.fitness(i) < this.fitness(worst)) {
+				worst = i;
+			}
+		}
+		return worst;
+	}
+	
+	/**
+	 * Provides the fitness (number of filled cells) of the ith individual
+	 * without copying it.
+	 * @param i, the index of the individual.
+	 * @return the number of filled cells of the ith individual.
+	 */
+	public int fitness(int i) {
+		return this.population.get(i).nbrFilledPlaces();
+	}
+	
+	/**
+	 * Provides the number of distinct individuals in the population.
+	 * @return the number of individuals with pairwise different positions.
+	 */
+	public int distinctCount() {
+		HashSet<String> positions = new HashSet<String>();
+		for(PentominosBoard board : this.population) {
+			positions.add(board.positions.toString());
+		}
+		return positions.size();
+	}
+	
 	/**
 	 * This method performs a mutation some individual in the population.  
 	 * This individual is designated by her index.
+	 * A mutation that would duplicate another individual is discarded.
 	 * @param index of the individual that is mutated. 
 	 */
 	public void mutation(int index) {
-		PentominosBoard game = this.population.get(index);
-		this.orderedPopulation.remove(game);
-		game = game.copy();
+		this.store(index, mutate(this.population.get(index)));
+	}
+	
+	/**
+	 * Mutates a copy of a board: one piece, drawn with a probability that grows with
+	 * its number of conflicts, is moved to a position with few conflicts.
+	 * @param board, the board to be mutated, which is left unchanged.
+	 * @return the mutated copy.
+	 */
+	public static PentominosBoard mutate(PentominosBoard board) {
+		PentominosBoard game = board.copy();
 		RandomSelector r = new RandomSelector();
 		for(int i = 1; i < 13; i++) {
 			r.add(game.nbrConflict(i));
@@ -145,8 +229,7 @@ public class Population {
 		if(listValue.descendingKeySet().last() == 0)
 			pos = listValue.get(listValue.descendingKeySet().last()).get((int)(listValue.get(listValue.descendingKeySet().last()).size() * Math.random()));
 		game.putPiece(position, pos / 8, pos % 8);
-		this.population.set(index, game);
-		this.orderedPopulation.add(game);
+		return game;
 	}
 	
 	/**
@@ -154,8 +237,13 @@ public class Population {
 	 * @return the best individual (PentominosBoard) in the population.
 	 */
 	public PentominosBoard getBest() {
-		Iterator<PentominosBoard> it = this.iterator();
-		return it.next();
+		PentominosBoard best = this.population.get(0);
+		for(PentominosBoard board : this.population) {
+			if(board.nbrFilledPlaces() > best.nbrFilledPlaces()) {
+				best = board;
+			}
+		}
+		return best;
 	}
 	
 }
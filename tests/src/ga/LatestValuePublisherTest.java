@@ -0,0 +1,180 @@
+package ga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatestValuePublisherTest {
+
+    // Records every signal; drains run on the calling thread, so no waiting is needed.
+    private static final class Recorder implements Flow.Subscriber<Integer> {
+        final List<Integer> values = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private final LatestValuePublisher<Integer> publisher = new LatestValuePublisher<>(Runnable::run);
+
+    private Recorder subscribe() {
+        Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        return recorder;
+    }
+
+    @Test
+    void nothingIsSentWithoutDemand() {
+        Recorder recorder = subscribe();
+        publisher.submit(1);
+        publisher.submit(2);
+        assertEquals(List.of(), recorder.values);
+    }
+
+    @Test
+    void aRequestGetsOnlyTheLatestValue() {
+        Recorder recorder = subscribe();
+        publisher.submit(1);
+        publisher.submit(2);
+        publisher.submit(3);
+        recorder.subscription.request(1);
+        assertEquals(List.of(3), recorder.values);
+
+        publisher.submit(4);
+        publisher.submit(5);
+        assertEquals(List.of(3), recorder.values);
+        recorder.subscription.request(5);
+        publisher.submit(6);
+        assertEquals(List.of(3, 5, 6), recorder.values);
+    }
+
+    @Test
+    void unboundedDemandGetsEveryValue() {
+        Recorder recorder = subscribe();
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.subscription.request(Long.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            publisher.submit(i);
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), recorder.values);
+    }
+
+    @Test
+    void aLateSubscriberStartsWithTheLatestValue() {
+        publisher.submit(1);
+        publisher.submit(2);
+        Recorder recorder = subscribe();
+        recorder.subscription.request(1);
+        assertEquals(List.of(2), recorder.values);
+    }
+
+    @Test
+    void closeCompletesOnceTheLatestValueIsOut() {
+        Recorder recorder = subscribe();
+        publisher.submit(1);
+        publisher.close();
+        assertFalse(recorder.completed);
+
+        recorder.subscription.request(1);
+        assertEquals(List.of(1), recorder.values);
+        assertTrue(recorder.completed);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    void closeExceptionallyFailsAtOnce() {
+        Recorder recorder = subscribe();
+        publisher.submit(1);
+        IllegalStateException failure = new IllegalStateException();
+        publisher.closeExceptionally(failure);
+        assertSame(failure, recorder.error);
+        assertFalse(recorder.completed);
+
+        recorder.subscription.request(1);
+        assertEquals(List.of(), recorder.values);
+    }
+
+    @Test
+    void nonPositiveRequestsAreErrors() {
+        Recorder recorder = subscribe();
+        recorder.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, recorder.error);
+
+        publisher.submit(1);
+        recorder.subscription.request(1);
+        assertEquals(List.of(), recorder.values);
+
+        Recorder negative = subscribe();
+        negative.subscription.request(-3);
+        assertInstanceOf(IllegalArgumentException.class, negative.error);
+    }
+
+    @Test
+    void cancelledOnceEverySubscriberHasCancelled() {
+        assertFalse(publisher.isCancelled());
+        Recorder first = subscribe();
+        Recorder second = subscribe();
+        first.subscription.request(Long.MAX_VALUE);
+
+        first.subscription.cancel();
+        assertFalse(publisher.isCancelled());
+        second.subscription.cancel();
+        assertTrue(publisher.isCancelled());
+
+        publisher.submit(1);
+        assertEquals(List.of(), first.values);
+    }
+
+    @Test
+    void aThrowingSubscriberIsCancelled() {
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        publisher.submit(1);
+        assertTrue(publisher.isCancelled());
+    }
+}
@@ -0,0 +1,126 @@
+package ga;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StopPolicyTest {
+
+    @Test
+    void anEmptyPolicyNeverStops() {
+        StopPolicy policy = StopPolicy.create();
+        policy.start(0);
+        for (int generation = 1; generation < 10_000; generation++) {
+            assertFalse(policy.shouldStop(generation, 100L * generation, 5));
+        }
+        assertFalse(policy.interrupted());
+        assertNull(policy.getReason());
+    }
+
+    @Test
+    void stopsOnTheTarget() {
+        StopPolicy policy = StopPolicy.create();
+        policy.setTargetFitness(50);
+        policy.start(0);
+        assertFalse(policy.shouldStop(1, 10, 49));
+        assertTrue(policy.shouldStop(2, 20, 50));
+        assertEquals(StopPolicy.Reason.TARGET, policy.getReason());
+    }
+
+    @Test
+    void stopsOnGenerationsAndEvaluations() {
+        StopPolicy policy = StopPolicy.create();
+        policy.setMaxGenerations(3);
+        policy.start(0);
+        assertFalse(policy.shouldStop(2, 0, 0));
+        assertTrue(policy.shouldStop(3, 0, 0));
+        assertEquals(StopPolicy.Reason.GENERATIONS, policy.getReason());
+
+        policy = StopPolicy.create();
+        policy.setMaxEvaluations(100);
+        policy.start(0);
+        assertFalse(policy.shouldStop(1, 99, 0));
+        assertTrue(policy.shouldStop(2, 100, 0));
+        assertEquals(StopPolicy.Reason.EVALUATIONS, policy.getReason());
+    }
+
+    @Test
+    void stagnationCountsFromTheLastImprovement() {
+        StopPolicy policy = StopPolicy.create();
+        policy.setStagnationLimit(3);
+        policy.start(10);
+        assertFalse(policy.shouldStop(1, 0, 10));
+        assertFalse(policy.shouldStop(2, 0, 11));
+        assertFalse(policy.shouldStop(3, 0, 11));
+        assertFalse(policy.shouldStop(4, 0, 11));
+        assertTrue(policy.shouldStop(5, 0, 11));
+        assertEquals(StopPolicy.Reason.STAGNATION, policy.getReason());
+    }
+
+    @Test
+    void aZeroStagnationLimitIsOff() {
+        StopPolicy policy = StopPolicy.defaults(0);
+        policy.start(10);
+        for (int generation = 1; generation < 1001; generation++) {
+            assertFalse(policy.shouldStop(generation, 0, 10));
+        }
+        assertTrue(policy.shouldStop(1001, 0, 10));
+        assertEquals(StopPolicy.Reason.GENERATIONS, policy.getReason());
+    }
+
+    @Test
+    void theTimeLimitStartsWithTheRun() throws InterruptedException {
+        StopPolicy policy = StopPolicy.create();
+        policy.setTimeLimit(Duration.ofMillis(20));
+        Thread.sleep(40);
+        policy.start(0);
+        assertFalse(policy.interrupted());
+        Thread.sleep(40);
+        assertTrue(policy.interrupted());
+        assertEquals(StopPolicy.Reason.DEADLINE, policy.getReason());
+
+        policy.start(0);
+        assertNull(policy.getReason());
+    }
+
+    @Test
+    void anAbsoluteDeadlineIsKeptAcrossStarts() {
+        StopPolicy policy = StopPolicy.create();
+        policy.setDeadline(System.nanoTime() - 1);
+        policy.start(0);
+        assertTrue(policy.shouldStop(1, 0, 0));
+        assertEquals(StopPolicy.Reason.DEADLINE, policy.getReason());
+    }
+
+    @Test
+    void stopsOnceTheTokenIsCancelled() {
+        CancellationToken token = new CancellationToken();
+        StopPolicy policy = StopPolicy.create();
+        policy.setCancellationToken(token);
+        policy.start(0);
+        assertFalse(policy.interrupted());
+
+        token.cancel();
+        assertTrue(token.isCancelled());
+        assertTrue(policy.interrupted());
+        assertEquals(StopPolicy.Reason.CANCELLED, policy.getReason());
+    }
+
+    @Test
+    void theTargetWinsOverTheOtherCriteria() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        StopPolicy policy = StopPolicy.create();
+        policy.setTargetFitness(5);
+        policy.setMaxGenerations(1);
+        policy.setCancellationToken(token);
+        policy.start(0);
+        assertTrue(policy.shouldStop(1, 0, 5));
+        assertEquals(StopPolicy.Reason.TARGET, policy.getReason());
+    }
+}
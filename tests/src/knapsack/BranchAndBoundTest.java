@@ -0,0 +1,90 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BranchAndBoundTest {
+
+    // Best fitness over all 2^n subsets, enumerated in Gray code order so that each step is one flip.
+    private static int bruteForce(KnapsackProblem problem) {
+        int n = problem.getNumberOfItems();
+        KnapsackSolution solution = new KnapsackSolution(problem);
+        int best = solution.fitness();
+        for (int i = 1; i < 1 << n; i++) {
+            solution.flipItem(Integer.numberOfTrailingZeros(i));
+            best = Math.max(best, solution.fitness());
+        }
+        return best;
+    }
+
+    @Test
+    void matchesBruteForce() {
+        for (int seed = 0; seed < 30; seed++) {
+            KnapsackProblem problem = TestInstances.random(6 + seed % 12, 1 + seed % 5, seed);
+            BranchAndBound exact = new BranchAndBound(problem);
+            KnapsackSolution solution = exact.solve();
+
+            assertTrue(solution.isFeasible());
+            assertTrue(exact.isProvenOptimal());
+            assertEquals(bruteForce(problem), solution.fitness(), "seed " + seed);
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnTightBudgets() {
+        for (int seed = 0; seed < 10; seed++) {
+            KnapsackProblem loose = TestInstances.random(16, 3, 100 + seed);
+            int[] budgets = loose.getBudgets().clone();
+            int[][] costs = new int[loose.getNumberOfItems()][];
+            int[] utilities = new int[loose.getNumberOfItems()];
+            for (int i = 0; i < utilities.length; i++) {
+                utilities[i] = loose.getUtility(i);
+                costs[i] = loose.getCosts(i);
+            }
+            for (int j = 0; j < budgets.length; j++) {
+                budgets[j] /= 4;
+            }
+            KnapsackProblem problem = new KnapsackProblem(utilities.length, utilities, costs, budgets);
+            assertEquals(bruteForce(problem), new BranchAndBound(problem).solve().fitness(), "seed " + seed);
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnParallelism() {
+        KnapsackProblem problem = TestInstances.random(18, 4, 7);
+        int expected = bruteForce(problem);
+        for (int parallelism : new int[] {1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                BranchAndBound exact = new BranchAndBound(problem);
+                exact.setPool(pool);
+                assertEquals(expected, exact.solve().fitness());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void timeoutReturnsAFeasibleIncumbent() {
+        KnapsackProblem problem = TestInstances.random(150, 10, 8);
+        BranchAndBound exact = new BranchAndBound(problem);
+        exact.setTimeLimit(Duration.ZERO);
+        KnapsackSolution solution = exact.solve();
+
+        assertTrue(solution.isFeasible());
+        assertTrue(solution.fitness() > 0);
+    }
+
+    @Test
+    void smallInstancesAreSolvedExactly() {
+        KnapsackProblem problem = TestInstances.random(14, 2, 9);
+        KnapsackSolution solution = KnapsackSolver.forProblem(problem, Duration.ofSeconds(5)).solve();
+        assertEquals(bruteForce(problem), solution.fitness());
+    }
+}
@@ -0,0 +1,88 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FingerprintSetTest {
+
+    // Mirrors every update in a HashMap and compares the counts of all the keys in use.
+    private static void check(int keys, int steps, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        FingerprintSet set = new FingerprintSet(4);
+        Map<Long, Integer> counts = new HashMap<>();
+        long[] universe = random.longs(keys).toArray();
+
+        for (int step = 0; step < steps; step++) {
+            long fingerprint = universe[random.nextInt(keys)];
+            if (random.nextInt(3) == 0) {
+                set.remove(fingerprint);
+                counts.computeIfPresent(fingerprint, (k, v) -> v == 1 ? null : v - 1);
+            } else {
+                set.add(fingerprint);
+                counts.merge(fingerprint, 1, Integer::sum);
+            }
+
+            if (step % 64 == 0) {
+                for (long key : universe) {
+                    assertEquals(counts.getOrDefault(key, 0), set.count(key));
+                }
+            }
+            assertEquals(counts.size(), set.distinct());
+        }
+    }
+
+    @Test
+    void matchesAHashMapMultiset() {
+        check(8, 2000, 1);
+        check(100, 20_000, 2);
+        check(5000, 50_000, 3);
+    }
+
+    @Test
+    void removingAnAbsentFingerprintDoesNothing() {
+        FingerprintSet set = new FingerprintSet(16);
+        set.add(42);
+        set.remove(7);
+        assertEquals(1, set.count(42));
+        assertEquals(0, set.count(7));
+        assertEquals(1, set.distinct());
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        FingerprintSet set = new FingerprintSet(16);
+        for (long fingerprint = 0; fingerprint < 100; fingerprint++) {
+            set.add(fingerprint);
+        }
+        set.clear();
+        assertEquals(0, set.distinct());
+        assertEquals(0, set.count(5));
+        set.add(5);
+        assertEquals(1, set.count(5));
+    }
+
+    @Test
+    void solutionFingerprintsFollowSingleBitWrites() {
+        KnapsackProblem problem = TestInstances.random(130, 3, 4);
+        SplittableRandom random = new SplittableRandom(5);
+        KnapsackSolution solution = problem.generateRandomSolution(random);
+
+        for (int step = 0; step < 1000; step++) {
+            int item = random.nextInt(problem.getNumberOfItems());
+            if (random.nextBoolean()) {
+                solution.flipItem(item);
+            } else {
+                solution.setItem(item, random.nextBoolean());
+            }
+            KnapsackSolution recomputed = solution.copy();
+            recomputed.invalidate();
+            assertEquals(recomputed.fingerprint(), solution.fingerprint());
+            assertEquals(recomputed.fitness(), solution.fitness());
+        }
+    }
+}
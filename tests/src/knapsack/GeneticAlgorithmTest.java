@@ -0,0 +1,98 @@
+package knapsack;
+
+import ga.CancellationToken;
+import ga.StopPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneticAlgorithmTest {
+    private final KnapsackProblem problem = TestInstances.random(80, 5, 3);
+
+    @Test
+    void steadyStateKeepsThePopulationIndexed() {
+        for (GeneticAlgorithm.Replacement replacement : GeneticAlgorithm.Replacement.values()) {
+            GeneticAlgorithm ga = new GeneticAlgorithm(problem, 20, new RandomSource(4));
+            int best = ga.population.getBest().fitness();
+            for (int step = 0; step < 10; step++) {
+                KnapsackSolution result = ga.solveSteadyState(0.5, 200, replacement);
+                assertEquals(40, ga.population.size());
+                PopulationTest.assertIndexed(ga.population);
+                assertTrue(result.isFeasible());
+                assertTrue(result.fitness() >= best);
+                best = result.fitness();
+            }
+        }
+    }
+
+    @Test
+    void steadyStateChildrenDoNotAliasTheirParents() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, 10, new RandomSource(5));
+        ga.solveSteadyState(0.5, 500);
+        for (int i = 0; i < ga.population.size(); i++) {
+            for (int j = i + 1; j < ga.population.size(); j++) {
+                assertTrue(ga.population.get(i) != ga.population.get(j));
+            }
+        }
+    }
+
+    @Test
+    void solveStopsAtTheFirstCriterionReached() {
+        KnapsackProblem large = TestInstances.random(2000, 10, 9);
+
+        StopPolicy generations = StopPolicy.create();
+        generations.setMaxGenerations(5);
+        GeneticAlgorithm ga = new GeneticAlgorithm(large, 10, new RandomSource(10));
+        ga.solve(0.05, 0.2, generations);
+        assertEquals(StopPolicy.Reason.GENERATIONS, generations.getReason());
+        assertEquals(5, ga.getGeneration());
+
+        StopPolicy evaluations = StopPolicy.create();
+        evaluations.setMaxEvaluations(100);
+        ga = new GeneticAlgorithm(large, 10, new RandomSource(11));
+        ga.solve(0.05, 0.2, evaluations);
+        assertEquals(StopPolicy.Reason.EVALUATIONS, evaluations.getReason());
+        assertTrue(ga.getEvaluations() >= 100);
+
+        StopPolicy deadline = StopPolicy.create();
+        deadline.setTimeLimit(Duration.ofMillis(200));
+        ga = new GeneticAlgorithm(large, 10, new RandomSource(12));
+        long start = System.nanoTime();
+        ga.solve(0.05, 0.2, deadline);
+        assertEquals(StopPolicy.Reason.DEADLINE, deadline.getReason());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    void aCancelledTokenStopsTheRunBeforeItsFirstGeneration() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        StopPolicy policy = StopPolicy.create();
+        policy.setCancellationToken(token);
+        GeneticAlgorithm ga = new GeneticAlgorithm(TestInstances.random(2000, 10, 13), 10, new RandomSource(14));
+
+        assertTrue(ga.solve(0.05, 0.2, policy).isFeasible());
+        assertEquals(StopPolicy.Reason.CANCELLED, policy.getReason());
+        assertEquals(0, ga.getGeneration());
+    }
+
+    @Test
+    void aParallelRunNeedsAWorker() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, 10, new RandomSource(15));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> ga.setExecutor(executor, 0));
+            ga.setExecutor(null, 0);
+            ga.setExecutor(executor, 1);
+            assertTrue(ga.solveSteadyState(0.5, 100).isFeasible());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
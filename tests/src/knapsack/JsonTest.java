@@ -0,0 +1,42 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonTest {
+
+    @Test
+    void parsesValues() {
+        Object value = Json.parse(" {\"a\": [1, -2.5, true, null], \"b\": \"x\\\"y\\u0041\"} ");
+        assertEquals(Map.of("a", Arrays.asList(1L, -2.5, true, null), "b", "x\"yA"), value);
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String text : List.of("", "{", "[1,]", "{\"a\" 1}", "tru", "\"open", "1 2", "{} x")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(text), text);
+        }
+    }
+
+    @Test
+    void nestingIsBounded() {
+        String allowed = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        Json.parse(allowed);
+
+        String deeper = "[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(deeper));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":".repeat(100_000)));
+    }
+
+    @Test
+    void quotesControlCharacters() {
+        String quoted = Json.quote("a\"b\\c\n\u0001");
+        assertEquals("a\"b\\c\n\u0001", Json.parse(quoted));
+    }
+}
@@ -0,0 +1,31 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KnapsackSolverTest {
+
+    private static void assertSolvedWithin(KnapsackProblem problem, Duration timeLimit) {
+        KnapsackSolver solver = KnapsackSolver.forProblem(problem, timeLimit);
+        long start = System.nanoTime();
+        KnapsackSolution solution = solver.solve();
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(solution.isFeasible());
+        // A generation past the deadline at most, which is a few milliseconds on these instances.
+        assertTrue(elapsed < timeLimit.plusMillis(300).toNanos(), elapsed / 1_000_000 + " ms");
+    }
+
+    @Test
+    void anUnprovenBranchAndBoundLeavesTheGeneticAlgorithmWithinTheTimeLimit() {
+        assertSolvedWithin(TestInstances.random(KnapsackSolver.EXACT_LIMIT - 1, 30, 19), Duration.ofMillis(400));
+    }
+
+    @Test
+    void largeInstancesRespectTheTimeLimit() {
+        assertSolvedWithin(TestInstances.random(5000, 30, 20), Duration.ofMillis(300));
+    }
+}
@@ -0,0 +1,95 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalSearchTest {
+    // 150 items, so the last word of the genome is partly used.
+    private final KnapsackProblem problem = TestInstances.random(150, 5, 24);
+
+    private LocalSearch search(LocalSearch.Strategy strategy) {
+        LocalSearch search = new LocalSearch(problem);
+        search.setStrategy(strategy);
+        search.setTimeBudget(Duration.ofSeconds(5));
+        return search;
+    }
+
+    // The incrementally maintained evaluation must match one computed from scratch.
+    private void assertEvaluationIsCurrent(KnapsackSolution solution) {
+        KnapsackSolution fresh = solution.copy();
+        fresh.invalidate();
+        assertEquals(fresh.fitness(), solution.fitness());
+        assertEquals(fresh.isFeasible(), solution.isFeasible());
+        for (int j = 0; j < problem.getDimensions(); j++) {
+            assertEquals(fresh.getTotalCost(j), solution.getTotalCost(j));
+        }
+    }
+
+    @Test
+    void improvingNeverLowersTheFitnessOfAFeasibleSolution() {
+        for (LocalSearch.Strategy strategy : LocalSearch.Strategy.values()) {
+            LocalSearch search = search(strategy);
+            for (long seed = 0; seed < 20; seed++) {
+                KnapsackSolution solution = problem.generateRandomSolution(new SplittableRandom(seed));
+                solution.repair();
+                int before = solution.fitness();
+
+                boolean improved = search.improve(solution);
+                assertTrue(solution.isFeasible());
+                assertTrue(solution.fitness() >= before);
+                assertEquals(solution.fitness() > before, improved);
+                assertEvaluationIsCurrent(solution);
+            }
+        }
+    }
+
+    @Test
+    void infeasibleSolutionsComeOutFeasible() {
+        for (LocalSearch.Strategy strategy : LocalSearch.Strategy.values()) {
+            LocalSearch search = search(strategy);
+            KnapsackSolution full = new KnapsackSolution(problem);
+            for (int i = 0; i < problem.getNumberOfItems(); i++) {
+                full.setItem(i, true);
+            }
+            assertFalse(full.isFeasible());
+
+            search.improve(full);
+            assertTrue(full.isFeasible());
+            assertTrue(full.fitness() > 0);
+            assertEvaluationIsCurrent(full);
+        }
+    }
+
+    @Test
+    void theResultIsALocalOptimumForAddMoves() {
+        for (LocalSearch.Strategy strategy : LocalSearch.Strategy.values()) {
+            KnapsackSolution solution = problem.generateRandomSolution(new SplittableRandom(30));
+            search(strategy).improve(solution);
+            for (int i = 0; i < problem.getNumberOfItems(); i++) {
+                if (!solution.getItem(i)) {
+                    KnapsackSolution added = solution.copy();
+                    added.setItem(i, true);
+                    assertFalse(added.isFeasible(), "item " + i + " still fits");
+                }
+            }
+        }
+    }
+
+    @Test
+    void aCopyClimbsTheSameWay() {
+        LocalSearch search = search(LocalSearch.Strategy.BEST_IMPROVEMENT);
+        KnapsackSolution first = problem.generateRandomSolution(new SplittableRandom(31));
+        KnapsackSolution second = first.copy();
+
+        search.improve(first);
+        search.copy().improve(second);
+        assertTrue(first.equals(second));
+        assertEvaluationIsCurrent(second);
+    }
+}
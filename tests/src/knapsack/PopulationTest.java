@@ -0,0 +1,126 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopulationTest {
+    private final KnapsackProblem problem = TestInstances.random(60, 5, 1);
+    private final SplittableRandom random = new SplittableRandom(2);
+
+    private KnapsackSolution repaired() {
+        KnapsackSolution solution = problem.generateRandomSolution(random);
+        solution.repair();
+        return solution;
+    }
+
+    private Population population(int size) {
+        Population population = new Population(problem);
+        for (int i = 0; i < size; i++) {
+            population.add(repaired());
+        }
+        return population;
+    }
+
+    // The heaps, the cached keys and the fingerprint multiset all agree with the solutions.
+    static void assertIndexed(Population population) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        Set<Long> fingerprints = new HashSet<>();
+        for (int i = 0; i < population.size(); i++) {
+            KnapsackSolution solution = population.get(i);
+            assertEquals(solution.fitness(), population.getFitness(i));
+            assertEquals(solution.fingerprint(), population.getFingerprint(i));
+            min = Math.min(min, solution.fitness());
+            max = Math.max(max, solution.fitness());
+            fingerprints.add(solution.fingerprint());
+        }
+        assertEquals(max, population.getBest().fitness());
+        assertEquals(min, population.getWorst().fitness());
+        assertEquals(min, population.getFitness(population.getWorstIndex()));
+        assertEquals(fingerprints.size(), population.distinctCount());
+    }
+
+    @Test
+    void heapsFollowEveryKindOfUpdate() {
+        Population population = population(40);
+        assertIndexed(population);
+
+        for (int step = 0; step < 2000; step++) {
+            int index = random.nextInt(population.size());
+            switch (random.nextInt(6)) {
+                case 0 -> population.mutate(index);
+                case 1 -> population.repair(index);
+                case 2 -> population.set(index, repaired());
+                case 3 -> population.overwrite(index, repaired());
+                case 4 -> population.replaceIfFitter(repaired());
+                default -> {
+                    population.get(index).flipItem(random.nextInt(problem.getNumberOfItems()));
+                    population.update(index);
+                }
+            }
+            assertIndexed(population);
+        }
+    }
+
+    @Test
+    void rebuildAfterInPlaceChanges() {
+        Population population = population(40);
+        for (KnapsackSolution solution : population.getSolutions()) {
+            solution.mutate(random);
+            solution.mutate(random);
+        }
+        population.rebuild();
+        assertIndexed(population);
+    }
+
+    @Test
+    void replaceIfFitterOnlyTakesStrictlyFitterSolutions() {
+        Population population = population(20);
+        KnapsackSolution worst = population.getWorst();
+
+        assertFalse(population.replaceIfFitter(worst.copy()));
+        assertEquals(worst.fitness(), population.getWorst().fitness());
+
+        KnapsackSolution best = population.getBest().copy();
+        assertTrue(best.fitness() == worst.fitness() || population.replaceIfFitter(best));
+        assertIndexed(population);
+    }
+
+    @Test
+    void elitesAreTheFittest() {
+        Population population = population(50);
+        for (int k : new int[] {0, 1, 7, 50, 80}) {
+            List<KnapsackSolution> elites = population.getElites(k);
+            assertEquals(Math.min(k, population.size()), elites.size());
+
+            int weakest = elites.stream().mapToInt(KnapsackSolution::fitness).min().orElse(Integer.MAX_VALUE);
+            for (KnapsackSolution solution : population.getSolutions()) {
+                assertTrue(solution.fitness() <= weakest || elites.stream().anyMatch(e -> e == solution));
+            }
+        }
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        Population population = new Population(problem);
+        KnapsackSolution solution = repaired();
+        population.add(solution.copy());
+        population.add(solution.copy());
+        population.add(repaired());
+
+        assertTrue(population.sameGenome(0, 1));
+        assertTrue(population.contains(solution));
+        assertEquals(2, population.distinctCount());
+
+        population.set(1, repaired());
+        assertIndexed(population);
+    }
+}
@@ -0,0 +1,128 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProblemLoaderTest {
+    // Two instances: 3 items in 2 dimensions, then 2 items in 1 dimension, with decimal budgets.
+    private static final String OR_LIBRARY = """
+            2
+            3 2 0
+            10 20 30
+            1 2 3
+            4 5 6
+            7 8
+            2 1 55
+            5 6
+            9 10
+            12.0
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, String text) throws IOException {
+        return Files.writeString(directory.resolve(name), text);
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(directory.resolve(name), bytes);
+    }
+
+    private Path write(String name, int... ints) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * ints.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(ints);
+        return Files.write(directory.resolve(name), buffer.array());
+    }
+
+    @Test
+    void orLibraryCostsAreTransposedToItemMajor() throws IOException {
+        List<KnapsackProblem> problems = ProblemLoader.readOrLibrary(write("mknap.txt", OR_LIBRARY));
+        assertEquals(2, problems.size());
+
+        KnapsackProblem first = problems.get(0);
+        assertEquals(3, first.getNumberOfItems());
+        assertEquals(2, first.getDimensions());
+        assertArrayEquals(new int[] {10, 20, 30}, first.getUtilities());
+        assertArrayEquals(new int[] {1, 4}, first.getCosts(0));
+        assertArrayEquals(new int[] {2, 5}, first.getCosts(1));
+        assertArrayEquals(new int[] {3, 6}, first.getCosts(2));
+        assertArrayEquals(new int[] {7, 8}, first.getBudgets());
+
+        KnapsackProblem second = problems.get(1);
+        assertArrayEquals(new int[] {5, 6}, second.getUtilities());
+        assertArrayEquals(new int[] {9, 10}, second.getCostMatrix());
+        assertArrayEquals(new int[] {12}, second.getBudgets());
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        KnapsackProblem problem = TestInstances.random(1000, 7, 21);
+        Path path = directory.resolve("instance.knap");
+        ProblemLoader.writeBinary(problem, path);
+
+        KnapsackProblem read = ProblemLoader.readBinary(path);
+        assertTrue(read.sameContent(problem));
+        assertEquals(problem.contentHash(), read.contentHash());
+    }
+
+    @Test
+    void readRecognisesTheBinaryFormat() throws IOException {
+        KnapsackProblem problem = TestInstances.random(50, 3, 22);
+        Path binary = directory.resolve("instance.knap");
+        ProblemLoader.writeBinary(problem, binary);
+        assertTrue(ProblemLoader.read(binary).sameContent(problem));
+
+        KnapsackProblem text = ProblemLoader.read(write("mknap.txt", OR_LIBRARY));
+        assertTrue(text.sameContent(ProblemLoader.readOrLibrary(directory.resolve("mknap.txt")).get(0)));
+    }
+
+    @Test
+    void truncatedFilesAreRejected() throws IOException {
+        Path binary = directory.resolve("instance.knap");
+        ProblemLoader.writeBinary(TestInstances.random(50, 3, 23), binary);
+        byte[] bytes = Files.readAllBytes(binary);
+        Files.write(binary, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> ProblemLoader.readBinary(binary));
+        assertThrows(IOException.class, () -> ProblemLoader.readBinary(write("short.knap", new byte[] {1, 2})));
+
+        Path text = write("mknap.txt", OR_LIBRARY.substring(0, OR_LIBRARY.indexOf("12.0")));
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(text));
+    }
+
+    @Test
+    void negativeSizesAreRejected() throws IOException {
+        Path binary = write("negative.knap", 0x4B4E4150, 1, -2, -2);
+        assertThrows(IOException.class, () -> ProblemLoader.readBinary(binary));
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(write("negative.txt", "1 -2 -2 0")));
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(write("count.txt", "-1")));
+    }
+
+    @Test
+    void oversizedHeadersAreRejectedBeforeAllocating() throws IOException {
+        Path text = write("huge.txt", "1 1000000 1000 0 1 2 3");
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(text));
+    }
+
+    @Test
+    void numbersOutsideTheIntRangeAreRejected() throws IOException {
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(write("big.txt", "1 1 1 0 2147483648 1 1")));
+        // 20 digits: 10^19 + 1 would wrap around a long into a small positive int.
+        String wrapping = "18446744073709551617";
+        assertThrows(IOException.class, () -> ProblemLoader.readOrLibrary(write("wrap.txt", "1 1 1 0 " + wrapping + " 1 1")));
+        assertEquals(2147483647, ProblemLoader.readOrLibrary(write("max.txt", "1 1 1 0 2147483647 1 1")).get(0).getUtility(0));
+    }
+}
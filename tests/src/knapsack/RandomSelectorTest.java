@@ -0,0 +1,87 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomSelectorTest {
+    private static final int[] WEIGHTS = {0, 1, 2, 3, 10, 0, 4};
+    private static final int DRAWS = 2_000_000;
+
+    // Every count within five standard deviations of its expectation, and none for a zero weight.
+    private static void assertProportional(int[] weights, int[] counts) {
+        long total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double p = (double) weights[i] / total;
+            double expected = p * DRAWS;
+            double tolerance = 5 * Math.sqrt(DRAWS * p * (1 - p));
+            if (weights[i] == 0) {
+                assertEquals(0, counts[i], "zero-weight item " + i + " was drawn");
+            } else {
+                assertTrue(Math.abs(counts[i] - expected) <= tolerance,
+                        "item " + i + " drawn " + counts[i] + " times, expected " + expected);
+            }
+        }
+    }
+
+    @Test
+    void singleDrawsFollowTheWeights() {
+        RandomSelector selector = new RandomSelector(new SplittableRandom(1));
+        selector.reset(WEIGHTS, WEIGHTS.length);
+        int[] counts = new int[WEIGHTS.length];
+        for (int k = 0; k < DRAWS; k++) {
+            counts[selector.randomChoice()]++;
+        }
+        assertProportional(WEIGHTS, counts);
+    }
+
+    @Test
+    void batchDrawsFollowTheWeights() {
+        RandomSelector selector = new RandomSelector(new SplittableRandom(2));
+        for (int weight : WEIGHTS) {
+            selector.add(weight);
+        }
+        int[] choices = new int[DRAWS];
+        selector.randomChoices(choices);
+        int[] counts = new int[WEIGHTS.length];
+        for (int choice : choices) {
+            counts[choice]++;
+        }
+        assertProportional(WEIGHTS, counts);
+    }
+
+    @Test
+    void aSmallerResetIgnoresTheOldWeights() {
+        RandomSelector selector = new RandomSelector(new SplittableRandom(3));
+        selector.reset(new int[] {1, 1, 1, 1, 1, 1, 1, 1, 100}, 9);
+        int[] weights = {5, 0, 1};
+        selector.reset(new int[] {5, 0, 1, 100}, 3);
+        assertEquals(3, selector.size());
+
+        int[] choices = new int[DRAWS];
+        selector.randomChoices(choices);
+        int[] counts = new int[weights.length];
+        for (int choice : choices) {
+            counts[choice]++;
+        }
+        assertProportional(weights, counts);
+    }
+
+    @Test
+    void allZeroWeightsDrawUniformly() {
+        int[] zeros = new int[4];
+        RandomSelector selector = new RandomSelector(new SplittableRandom(4));
+        selector.reset(zeros, zeros.length);
+        int[] counts = new int[zeros.length];
+        for (int k = 0; k < DRAWS; k++) {
+            counts[selector.randomChoice()]++;
+        }
+        assertProportional(new int[] {1, 1, 1, 1}, counts);
+    }
+}
@@ -0,0 +1,204 @@
+package knapsack;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionCacheTest {
+    private final KnapsackProblem problem = TestInstances.random(150, 5, 17);
+
+    @TempDir
+    Path directory;
+
+    private KnapsackSolution solution(KnapsackProblem problem, long seed) {
+        KnapsackSolution solution = problem.generateRandomSolution(new SplittableRandom(seed));
+        solution.repair();
+        return solution;
+    }
+
+    // Same instance, with new arrays, so that a lookup cannot succeed by identity alone.
+    private static KnapsackProblem copyOf(KnapsackProblem problem) {
+        int n = problem.getNumberOfItems();
+        int[] utilities = new int[n];
+        int[][] costs = new int[n][];
+        for (int i = 0; i < n; i++) {
+            utilities[i] = problem.getUtility(i);
+            costs[i] = problem.getCosts(i);
+        }
+        return new KnapsackProblem(n, utilities, costs, problem.getBudgets().clone());
+    }
+
+    @Test
+    void exactHitsReturnACopyOfTheCachedSolution() {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        assertNull(cache.get(problem));
+
+        KnapsackSolution best = solution(problem, 1);
+        cache.put(problem, best, false, List.of(best));
+        SolutionCache.Hit hit = cache.get(copyOf(problem));
+
+        assertNotNull(hit);
+        assertTrue(hit.solution().equals(best));
+        assertEquals(best.fitness(), hit.solution().fitness());
+        assertTrue(hit.solution() != best);
+        assertEquals(1, cache.getStats().hits());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    void worseOrUnprovenSolutionsDoNotReplaceBetterOnes() {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        KnapsackSolution better = solution(problem, 2);
+        KnapsackSolution worse = new KnapsackSolution(problem);
+        cache.put(problem, better, true, List.of());
+
+        cache.put(problem, worse, false, List.of());
+        assertTrue(cache.get(problem).solution().equals(better));
+        cache.put(problem, better.copy(), false, List.of());
+        assertTrue(cache.get(problem).proven());
+    }
+
+    @Test
+    void entriesRoundTripThroughTheDisk() {
+        KnapsackSolution best = solution(problem, 3);
+        List<KnapsackSolution> elites = List.of(solution(problem, 4), solution(problem, 5));
+        new SolutionCache(1 << 20, directory).put(problem, best, true, elites);
+
+        SolutionCache reopened = new SolutionCache(1 << 20, directory);
+        SolutionCache.Hit hit = reopened.get(copyOf(problem));
+        assertNotNull(hit);
+        assertTrue(hit.proven());
+        assertTrue(hit.solution().equals(best));
+        assertEquals(1, reopened.getStats().diskHits());
+
+        // The loaded entry is now in memory, elites included.
+        assertNotNull(reopened.get(problem));
+        assertEquals(1, reopened.getStats().hits());
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, 5, new RandomSource(6));
+        assertEquals(elites.size() + 1, reopened.warmStart(ga));
+        assertTrue(ga.population.getBest().fitness() >= best.fitness());
+    }
+
+    @Test
+    void concurrentPutsLeaveTheBestEntryOnDisk() throws Exception {
+        // Each round, the threads put solutions of increasing fitness at the same time.
+        int threads = 4;
+        KnapsackProblem large = TestInstances.random(20_000, 20, 19);
+        KnapsackSolution[] solutions = new KnapsackSolution[threads];
+        for (int t = 0; t < threads; t++) {
+            solutions[t] = solution(large, 20 + t);
+        }
+        Arrays.sort(solutions, (a, b) -> Integer.compare(a.fitness(), b.fitness()));
+        KnapsackSolution best = solutions[threads - 1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 20; round++) {
+                SolutionCache cache = new SolutionCache(1 << 30, directory.resolve("round" + round));
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                List<Future<?>> puts = new ArrayList<>();
+                for (KnapsackSolution solution : solutions) {
+                    puts.add(executor.submit(() -> {
+                        barrier.await();
+                        cache.put(large, solution, false, List.of());
+                        return null;
+                    }));
+                }
+                for (Future<?> put : puts) {
+                    put.get();
+                }
+                SolutionCache.Hit hit = new SolutionCache(1 << 30, directory.resolve("round" + round)).get(large);
+                assertEquals(best.fitness(), hit.solution().fitness());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unreadableFilesAreMisses() throws IOException {
+        new SolutionCache(1 << 20, directory).put(problem, solution(problem, 7), false, List.of());
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                byte[] bytes = Files.readAllBytes(file);
+                Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            }
+        }
+        assertNull(new SolutionCache(1 << 20, directory).get(problem));
+    }
+
+    @Test
+    void aNearInstanceIsWarmStartedFromTheCachedElites() {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        GeneticAlgorithm solved = new GeneticAlgorithm(problem, 10, new RandomSource(8));
+        KnapsackSolution best = solved.solveSteadyState(0.1, 2000);
+        cache.put(solved, best, false);
+
+        // One item in a hundred and fifty changes, and the budgets shrink by a tenth.
+        int n = problem.getNumberOfItems();
+        int[] utilities = new int[n];
+        int[][] costs = new int[n][];
+        for (int i = 0; i < n; i++) {
+            utilities[i] = problem.getUtility(i);
+            costs[i] = problem.getCosts(i);
+        }
+        utilities[0]++;
+        int[] budgets = problem.getBudgets().clone();
+        for (int j = 0; j < budgets.length; j++) {
+            budgets[j] = budgets[j] * 9 / 10;
+        }
+        KnapsackProblem near = new KnapsackProblem(n, utilities, costs, budgets);
+
+        assertNull(cache.get(near));
+        GeneticAlgorithm ga = new GeneticAlgorithm(near, 10, new RandomSource(9));
+        assertTrue(cache.warmStart(ga) > 0);
+        assertEquals(1, cache.getStats().nearHits());
+        for (KnapsackSolution solution : ga.population.getSolutions()) {
+            assertTrue(solution.isFeasible());
+        }
+
+        cache.setNearMatchThreshold(1);
+        assertEquals(0, cache.warmStart(new GeneticAlgorithm(near, 10, new RandomSource(10))));
+    }
+
+    @Test
+    void theLeastRecentlyUsedEntriesAreEvicted() {
+        KnapsackProblem[] problems = new KnapsackProblem[4];
+        SolutionCache cache = new SolutionCache(Long.MAX_VALUE);
+        for (int p = 0; p < problems.length; p++) {
+            problems[p] = TestInstances.random(150, 5, 100 + p);
+        }
+        cache.put(problems[0], solution(problems[0], 11), false, List.of());
+        long entryBytes = cache.getStats().bytes();
+
+        cache = new SolutionCache(3 * entryBytes);
+        for (int p = 0; p < 3; p++) {
+            cache.put(problems[p], solution(problems[p], 11), false, List.of());
+        }
+        assertNotNull(cache.get(problems[0]));
+        cache.put(problems[3], solution(problems[3], 11), false, List.of());
+
+        assertEquals(3, cache.getStats().entries());
+        assertTrue(cache.getStats().bytes() <= 3 * entryBytes);
+        assertNotNull(cache.get(problems[0]));
+        assertNull(cache.get(problems[1]));
+        assertNotNull(cache.get(problems[3]));
+    }
+}
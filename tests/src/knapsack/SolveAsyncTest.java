@@ -0,0 +1,92 @@
+package knapsack;
+
+import ga.StopPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveAsyncTest {
+    private final KnapsackProblem problem = TestInstances.random(200, 5, 6);
+
+    @Test
+    void publishesImprovingIncumbentsThenCompletes() throws Exception {
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, 20, new RandomSource(7));
+        StopPolicy policy = StopPolicy.create();
+        policy.setMaxGenerations(200);
+        List<Incumbent> incumbents = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        ga.solveAsync(0.05, 0.2, policy).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Incumbent incumbent) {
+                incumbents.add(incumbent);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(30, TimeUnit.SECONDS);
+
+        assertFalse(incumbents.isEmpty());
+        for (int i = 1; i < incumbents.size(); i++) {
+            assertTrue(incumbents.get(i).fitness() > incumbents.get(i - 1).fitness());
+        }
+        Incumbent last = incumbents.get(incumbents.size() - 1);
+        assertEquals(ga.population.getBest().fitness(), last.fitness());
+        assertEquals(last.fitness(), last.solution().fitness());
+    }
+
+    @Test
+    void cancellingEverySubscriptionStopsTheRun() throws Exception {
+        GeneticAlgorithm ga = new GeneticAlgorithm(problem, 20, new RandomSource(8));
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        try {
+            // No criterion set: only the cancellation (or the optimum) can end this run.
+            ga.solveAsync(0.05, 0.2, StopPolicy.create(), runner).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(Incumbent incumbent) {
+                    throw new IllegalStateException("stop");
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            runner.shutdown();
+            assertTrue(runner.awaitTermination(30, TimeUnit.SECONDS));
+        } finally {
+            runner.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package knapsack;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveServiceTest {
+    private static final String INSTANCE = "\"utilities\": [6, 5, 4], \"costs\": [[3, 1], [2, 2], [2, 1]], \"budgets\": [4, 3]";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private SolveService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        service = new SolveService(1, 0);
+        service.start(0);
+    }
+
+    @AfterEach
+    void stop() {
+        service.close();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/solve")).POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + service.getPort() + path);
+    }
+
+    private static Map<?, ?> json(HttpResponse<String> response) {
+        return (Map<?, ?>) Json.parse(response.body());
+    }
+
+    @Test
+    void solvesAValidRequest() throws Exception {
+        HttpResponse<String> response = post("{" + INSTANCE + ", \"timeLimitMillis\": 500, \"seed\": 1}");
+        assertEquals(200, response.statusCode());
+        Map<?, ?> result = json(response);
+        assertEquals(9L, result.get("fitness"));
+        assertEquals(true, result.get("feasible"));
+        assertEquals(List.of(1L, 2L), result.get("items"));
+        assertEquals("branch-and-bound", result.get("solver"));
+    }
+
+    @Test
+    void theGeneticAlgorithmTakesOverWhenBranchAndBoundTimesOut() throws Exception {
+        // Small enough for branch and bound, far too hard for it to prove in 400 ms.
+        KnapsackProblem problem = TestInstances.random(KnapsackSolver.EXACT_LIMIT - 1, 30, 18);
+        SolveService.Result result = service.solve(problem, Duration.ofMillis(400), 0.05, 0.2, 1);
+
+        assertEquals("genetic", result.solver());
+        assertTrue(result.generations() >= 1);
+        assertTrue(result.solution().isFeasible());
+    }
+
+    @Test
+    void malformedRequestsAreBadRequests() throws Exception {
+        List<String> bodies = List.of(
+                "",
+                "not json",
+                "[1, 2]",
+                "{\"utilities\": [1], \"budgets\": [1]}",
+                "{\"utilities\": [1, 2], \"costs\": [[1]], \"budgets\": [1]}",
+                "{\"utilities\": [-1], \"costs\": [[1]], \"budgets\": [1]}",
+                "{\"utilities\": [1], \"costs\": [[1, 2]], \"budgets\": [1]}",
+                "{\"utilities\": [], \"costs\": [], \"budgets\": [1]}",
+                "{" + INSTANCE + ", \"mutationRate\": \"high\"}",
+                "{" + INSTANCE + ", \"mutationRate\": 1.5}",
+                "{" + INSTANCE + ", \"elitistRate\": -0.1}",
+                "{" + INSTANCE + ", \"timeLimitMillis\": -1}",
+                "{" + INSTANCE + ", \"seed\": [1]}",
+                "[".repeat(100_000));
+        for (String body : bodies) {
+            HttpResponse<String> response = post(body);
+            assertEquals(400, response.statusCode(), body.length() > 200 ? body.substring(0, 200) : body);
+            assertInstanceOf(String.class, json(response).get("error"));
+        }
+        assertEquals(0, service.getMetrics().accepted());
+    }
+
+    @Test
+    void oversizedBodiesAreRejected() throws Exception {
+        HttpResponse<String> response = post("{\"utilities\": [" + " ".repeat(16 << 20) + "]}");
+        assertEquals(413, response.statusCode());
+    }
+
+    @Test
+    void onlyPostIsAllowed() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/solve")).GET());
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+    }
+
+    @Test
+    void aFullQueueIsServiceUnavailable() throws Exception {
+        // Holds the only permit for a while; with no queue, the next request is turned away.
+        KnapsackProblem large = TestInstances.random(2000, 10, 15);
+        CompletableFuture<SolveService.Result> busy = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.solve(large, Duration.ofSeconds(2));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.getMetrics().running() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, service.getMetrics().running());
+
+        HttpResponse<String> response = post("{" + INSTANCE + "}");
+        assertEquals(503, response.statusCode());
+        assertTrue(response.headers().firstValue("Retry-After").isPresent());
+        assertThrows(RejectedExecutionException.class, () -> service.solve(large, Duration.ofSeconds(1)));
+
+        busy.get();
+        SolveService.Metrics metrics = service.getMetrics();
+        assertEquals(2, metrics.rejected());
+        assertEquals(0, metrics.running());
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/metrics")).GET()).statusCode());
+    }
+
+    @Test
+    void anInterruptedCallerCancelsItsSolveBeforeFreeingThePermit() throws Exception {
+        KnapsackProblem large = TestInstances.random(2000, 10, 16);
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                service.solve(large, Duration.ofSeconds(30));
+                outcome.complete(null);
+            } catch (Throwable e) {
+                outcome.complete(e);
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.getMetrics().running() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        caller.interrupt();
+        assertInstanceOf(InterruptedException.class, outcome.get());
+
+        // The cancelled run stops within a phase, well before its 30 s time limit.
+        while (service.getMetrics().running() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, service.getMetrics().running());
+        assertEquals(200, post("{" + INSTANCE + "}").statusCode());
+    }
+}
@@ -0,0 +1,33 @@
+package knapsack;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random instances shared by the tests, built like the benchmark ones: utilities and costs
+ * uniform in [1, 1000], and every budget set to 60% of the total cost of its dimension.
+ */
+final class TestInstances {
+    private TestInstances() {
+    }
+
+    static KnapsackProblem random(int numberOfItems, int dimensions, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] utilities = new int[numberOfItems];
+        int[][] costs = new int[numberOfItems][dimensions];
+        long[] totals = new long[dimensions];
+
+        for (int i = 0; i < numberOfItems; i++) {
+            utilities[i] = random.nextInt(1, 1001);
+            for (int j = 0; j < dimensions; j++) {
+                costs[i][j] = random.nextInt(1, 1001);
+                totals[j] += costs[i][j];
+            }
+        }
+
+        int[] budgets = new int[dimensions];
+        for (int j = 0; j < dimensions; j++) {
+            budgets[j] = (int) (totals[j] * 6 / 10);
+        }
+        return new KnapsackProblem(numberOfItems, utilities, costs, budgets);
+    }
+}
@@ -0,0 +1,43 @@
+package tp.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import ga.CancellationToken;
+import ga.StopPolicy;
+import org.junit.jupiter.api.Test;
+import tp.representation.PentominosBoard;
+
+class GeneticAlgorithmTest {
+
+    @Test
+    void stopsAfterTheMaximumNumberOfGenerations() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 10);
+        StopPolicy policy = StopPolicy.create();
+        policy.setMaxGenerations(3);
+        int[] generations = new int[1];
+        ga.addListener(stats -> generations[0]++);
+
+        assertNotNull(ga.solve(0.1, 0.2, policy));
+        // Unless a perfect board turns up first, which leaves no reason.
+        if (policy.getReason() != null) {
+            assertEquals(StopPolicy.Reason.GENERATIONS, policy.getReason());
+            assertEquals(3, generations[0]);
+        }
+    }
+
+    @Test
+    void aCancelledTokenStopsTheRunBeforeItsFirstGeneration() {
+        GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 10);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        StopPolicy policy = StopPolicy.create();
+        policy.setCancellationToken(token);
+        int[] generations = new int[1];
+        ga.addListener(stats -> generations[0]++);
+
+        assertNotNull(ga.solve(0.1, 0.2, policy));
+        assertEquals(StopPolicy.Reason.CANCELLED, policy.getReason());
+        assertEquals(0, generations[0]);
+    }
+}
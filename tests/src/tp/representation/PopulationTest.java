@@ -0,0 +1,87 @@
+package tp.representation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import tp.algorithm.GeneticAlgorithm;
+
+/**
+ * Checks that the list and the ordered set of a Population stay in lockstep
+ * through steady-state replacements, and that it never holds duplicates.
+ */
+class PopulationTest {
+
+	/**
+	 * Asserts the invariants of a population: as many boards in the ordered set as in the list,
+	 * pairwise different positions, and indexOfWorst and getBest agreeing with the fitnesses.
+	 * @param population, the population to check.
+	 * @param size, its expected size.
+	 */
+	private static void assertConsistent(Population population, int size) {
+		assertEquals(size, population.size());
+		int ordered = 0;
+		for(Iterator<PentominosBoard> it = population.iterator(); it.hasNext(); it.next()) {
+			ordered++;
+		}
+		assertEquals(size, ordered);
+		assertEquals(size, population.distinctCount());
+
+		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		for(int i = 0; i < size; i++) {
+			min = Math.min(min, population.fitness(i));
+			max = Math.max(max, population.fitness(i));
+		}
+		assertEquals(min, population.fitness(population.indexOfWorst()));
+		assertEquals(max, population.getBest().nbrFilledPlaces());
+	}
+
+	@Test
+	void steadyStateKeepsTheSetAndTheListInLockstep() {
+		for(GeneticAlgorithm.Replacement replacement : GeneticAlgorithm.Replacement.values()) {
+			GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 10);
+			assertConsistent(ga.population, 20);
+			int best = ga.population.getBest().nbrFilledPlaces();
+			for(int step = 0; step < 10; step++) {
+				ga.solveSteadyState(0.5, 100, replacement);
+				assertConsistent(ga.population, 20);
+				assertTrue(ga.population.getBest().nbrFilledPlaces() >= best);
+				best = ga.population.getBest().nbrFilledPlaces();
+			}
+		}
+	}
+
+	@Test
+	void setRejectsDuplicates() {
+		GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 5);
+		Population population = ga.population;
+		PentominosBoard other = population.get(1);
+
+		assertFalse(population.set(0, other));
+		assertFalse(population.get(0).samePositions(other));
+		assertTrue(population.set(1, other));
+		assertConsistent(population, 10);
+	}
+
+	@Test
+	void mutationsKeepThePopulationConsistent() {
+		GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 10);
+		for(int step = 0; step < 200; step++) {
+			ga.population.mutation((int)(20 * Math.random()));
+			assertConsistent(ga.population, 20);
+		}
+	}
+
+	@Test
+	void mutateLeavesItsArgumentUnchanged() {
+		GeneticAlgorithm ga = new GeneticAlgorithm(new PentominosBoard(), 1);
+		PentominosBoard board = ga.population.get(0);
+		PentominosBoard copy = board.copy();
+		Population.mutate(board);
+		assertTrue(board.samePositions(copy));
+	}
+}